@@ -228,10 +228,24 @@ document.addEventListener('click', function(e) {
 // ==========================================
 // CART FUNCTIONALITY
 // ==========================================
+// Cart rows are keyed by item id and patched in place, and the item count and
+// subtotal (in cents) are kept as running totals, so adding, removing or
+// re-pricing one line no longer rebuilds the whole table. updateCartDisplay()
+// still re-renders everything from `cart` after it is replaced wholesale.
 let cart = [];
 let promoApplied = false;
 let promoDiscount = 0;
 
+let cartByName = new Map();
+let cartRows = new Map();
+let cartItemCount = 0;
+let cartSubtotalCents = 0;
+let nextCartId = 1;
+
+function toCents(amount) {
+    return Math.round(amount * 100);
+}
+
 function quickAdd(itemName, itemPrice) {
     addItemToCart(itemName, itemPrice, 1);
 }
@@ -253,33 +267,97 @@ function addToCart() {
 
 function addItemToCart(itemName, itemPrice, qty) {
     // Check if item already exists in cart
-    const existingItem = cart.find(item => item.name === itemName);
+    let item = cartByName.get(itemName);
     
-    if (existingItem) {
-        existingItem.qty += qty;
-        existingItem.cost = existingItem.qty * existingItem.price;
+    if (item) {
+        item.qty += qty;
+        item.cost = item.qty * item.price;
     } else {
-        cart.push({
-            id: Date.now(),
+        item = {
+            id: nextCartId++,
             name: itemName,
             price: itemPrice,
             qty: qty,
             cost: itemPrice * qty
-        });
+        };
+        cart.push(item);
+        cartByName.set(itemName, item);
     }
     
-    updateCartDisplay();
+    cartItemCount += qty;
+    cartSubtotalCents += toCents(item.price) * qty;
+    renderCartRow(item, cart.length);
+    updateCartSummary();
     showNotification(`Added ${qty}x ${itemName} to cart`, "success");
 }
 
 function removeFromCart(itemId) {
-    cart = cart.filter(item => item.id !== itemId);
-    updateCartDisplay();
+    const index = cart.findIndex(item => item.id === itemId);
+    if (index === -1) return;
+    
+    const item = cart[index];
+    cart.splice(index, 1);
+    cartByName.delete(item.name);
+    cartItemCount -= item.qty;
+    cartSubtotalCents -= toCents(item.price) * item.qty;
+    
+    cartRows.get(item.id).remove();
+    cartRows.delete(item.id);
+    // Rows are numbered by position, so only the ones after the gap move
+    for (let i = index; i < cart.length; i++) {
+        numberCartRow(cartRows.get(cart[i].id), i + 1);
+    }
+    
+    updateCartSummary();
     showNotification("Item removed from cart", "info");
 }
 
+// Creates the row for a new item or updates quantity and cost of an existing one
+function renderCartRow(item, position) {
+    let row = cartRows.get(item.id);
+    
+    if (!row) {
+        row = document.createElement('tr');
+        row.innerHTML = `
+            <td>${item.name}</td>
+            <td></td>
+            <td></td>
+            <td><button class="remove-btn" onclick="removeFromCart(${item.id})">✕</button></td>
+        `;
+        numberCartRow(row, position);
+        cartRows.set(item.id, row);
+        document.getElementById('cart-body').appendChild(row);
+    }
+    
+    row.cells[1].textContent = item.qty;
+    row.cells[2].textContent = '$' + item.cost.toFixed(2);
+}
+
+function numberCartRow(row, position) {
+    row.setAttribute('data-testid', 'cart-item-' + position);
+    row.querySelector('.remove-btn').setAttribute('data-testid', 'remove-item-' + position);
+}
+
+// Full re-render from `cart`; resets the keyed rows and running totals
 function updateCartDisplay() {
-    const tbody = document.getElementById('cart-body');
+    document.getElementById('cart-body').innerHTML = "";
+    cartByName = new Map();
+    cartRows = new Map();
+    cartItemCount = 0;
+    cartSubtotalCents = 0;
+    
+    cart.forEach(function(item, index) {
+        cartByName.set(item.name, item);
+        cartItemCount += item.qty;
+        cartSubtotalCents += toCents(item.price) * item.qty;
+        nextCartId = Math.max(nextCartId, item.id + 1);
+        renderCartRow(item, index + 1);
+    });
+    
+    updateCartSummary();
+}
+
+function updateCartSummary() {
     const emptyCart = document.getElementById('empty-cart');
     const cartTable = document.getElementById('cart-table');
     const cartSummary = document.getElementById('cart-summary');
@@ -298,25 +376,10 @@ function updateCartDisplay() {
     cartSummary.classList.remove('hidden');
     
     // Update cart count
-    const totalItems = cart.reduce((sum, item) => sum + item.qty, 0);
-    cartCount.innerText = totalItems + (totalItems === 1 ? " item" : " items");
-    
-    // Build cart table
-    tbody.innerHTML = "";
-    cart.forEach(function(item, index) {
-        const row = document.createElement('tr');
-        row.setAttribute('data-testid', 'cart-item-' + (index + 1));
-        row.innerHTML = `
-            <td>${item.name}</td>
-            <td>${item.qty}</td>
-            <td>$${item.cost.toFixed(2)}</td>
-            <td><button class="remove-btn" data-testid="remove-item-${index + 1}" onclick="removeFromCart(${item.id})">✕</button></td>
-        `;
-        tbody.appendChild(row);
-    });
+    cartCount.innerText = cartItemCount + (cartItemCount === 1 ? " item" : " items");
     
     // Calculate totals
-    const subtotal = cart.reduce((sum, item) => sum + item.cost, 0);
+    const subtotal = cartSubtotalCents / 100;
     const tax = subtotal * 0.10;
     let total = subtotal + tax;
     
@@ -381,7 +444,7 @@ function applyPromo() {
         promoMsg.innerText = `Promo code applied! ${promoDiscount * 100}% discount`;
         promoMsg.className = "promo-message success-text";
         promoMsg.classList.remove('hidden');
-        updateCartDisplay();
+        updateCartSummary();
     } else {
         promoMsg.innerText = "Invalid promo code";
         promoMsg.className = "promo-message error-text";
@@ -407,14 +470,12 @@ function checkout() {
     const orderNumber = 'ORD-' + Date.now().toString().slice(-8);
     
     // Save to order history
-    const orderHistory = JSON.parse(localStorage.getItem('orderHistory') || '[]');
-    orderHistory.push({
+    appendOrder({
         orderNumber: orderNumber,
         date: new Date().toLocaleDateString(),
         items: [...cart],
         total: total
     });
-    localStorage.setItem('orderHistory', JSON.stringify(orderHistory));
     
     // Show confirmation modal
     document.getElementById('checkout-message').innerText = `Thank you for your order! Total: $${total}`;
@@ -436,72 +497,197 @@ function closeCheckoutModal() {
 // ==========================================
 // SEARCH & FILTER FUNCTIONALITY
 // ==========================================
-function searchMenu() {
-    const searchTerm = document.getElementById('search-input').value.toLowerCase();
-    const rows = document.querySelectorAll('#menu-body tr');
-    let visibleCount = 0;
-    
-    rows.forEach(function(row) {
-        const itemName = row.querySelector('td').innerText.toLowerCase();
-        if (itemName.includes(searchTerm)) {
-            row.classList.remove('hidden');
-            visibleCount++;
-        } else {
-            row.classList.add('hidden');
-        }
+// Menu rows are indexed once (lower-cased name, category, current visibility)
+// and the index is rebuilt only when rows are added or removed. Searching and
+// filtering read the index instead of the DOM and only touch rows whose
+// visibility actually changes. On large catalogues keystrokes are debounced.
+const SEARCH_DEBOUNCE_ROWS = 500;
+const SEARCH_DEBOUNCE_MS = 80;
+
+let menuIndex = null;
+let lastSearchTerm = null;
+let searchTimer = null;
+
+function getMenuIndex() {
+    if (menuIndex) return menuIndex;
+
+    const body = document.getElementById('menu-body');
+    menuIndex = Array.from(body.rows).map(function(row) {
+        return {
+            row: row,
+            name: row.cells[0].textContent.toLowerCase(),
+            category: row.getAttribute('data-category'),
+            hidden: row.classList.contains('hidden')
+        };
     });
-    
-    // Show/hide no results message
+    lastSearchTerm = null;
+
+    if (!body.menuObserver) {
+        body.menuObserver = new MutationObserver(function() {
+            menuIndex = null;
+        });
+        body.menuObserver.observe(body, { childList: true });
+    }
+    return menuIndex;
+}
+
+function setRowHidden(entry, hidden) {
+    if (entry.hidden !== hidden) {
+        entry.hidden = hidden;
+        entry.row.classList.toggle('hidden', hidden);
+    }
+}
+
+function showMenuResults(visibleCount) {
     const noResults = document.getElementById('no-results');
     if (visibleCount === 0) {
         noResults.classList.remove('hidden');
     } else {
         noResults.classList.add('hidden');
     }
+    document.dispatchEvent(new CustomEvent('menu:filtered', { detail: { visible: visibleCount } }));
+}
+
+function searchMenu() {
+    clearTimeout(searchTimer);
+    if (getMenuIndex().length > SEARCH_DEBOUNCE_ROWS) {
+        searchTimer = setTimeout(applySearch, SEARCH_DEBOUNCE_MS);
+    } else {
+        applySearch();
+    }
+}
+
+function applySearch() {
+    const searchTerm = document.getElementById('search-input').value.toLowerCase();
+    const index = getMenuIndex();
+    // A longer term can only narrow the previous matches
+    const narrowing = lastSearchTerm !== null && searchTerm.includes(lastSearchTerm);
+    let visibleCount = 0;
+
+    index.forEach(function(entry) {
+        if (narrowing && entry.hidden) return;
+        const matches = entry.name.includes(searchTerm);
+        setRowHidden(entry, !matches);
+        if (matches) visibleCount++;
+    });
+
+    lastSearchTerm = searchTerm;
+    showMenuResults(visibleCount);
 }
 
 function clearSearch() {
+    clearTimeout(searchTimer);
     document.getElementById('search-input').value = '';
-    searchMenu();
+    applySearch();
 }
 
 function filterMenu(category) {
     const buttons = document.querySelectorAll('.filter-btn');
     buttons.forEach(btn => btn.classList.remove('active'));
     event.target.classList.add('active');
-    
-    const rows = document.querySelectorAll('#menu-body tr');
+
     let visibleCount = 0;
-    
-    rows.forEach(function(row) {
-        if (category === 'all' || row.getAttribute('data-category') === category) {
-            row.classList.remove('hidden');
-            visibleCount++;
-        } else {
-            row.classList.add('hidden');
-        }
+    getMenuIndex().forEach(function(entry) {
+        const matches = category === 'all' || entry.category === category;
+        setRowHidden(entry, !matches);
+        if (matches) visibleCount++;
     });
-    
-    const noResults = document.getElementById('no-results');
-    if (visibleCount === 0) {
-        noResults.classList.remove('hidden');
-    } else {
-        noResults.classList.add('hidden');
-    }
+
+    // The visible rows no longer follow the search term
+    lastSearchTerm = null;
+    showMenuResults(visibleCount);
 }
 
 // ==========================================
 // ORDER HISTORY
 // ==========================================
+// Orders are stored in buckets of ORDER_BUCKET_SIZE under 'orderHistory.0',
+// 'orderHistory.1', ... with the total in 'orderHistoryCount', so a checkout
+// only rewrites the newest bucket. The history modal shows the newest orders
+// first, one page at a time. A history saved as a single 'orderHistory' array
+// by older versions is split into buckets the first time it is read.
+const ORDER_BUCKET_SIZE = 50;
+const ORDER_PAGE_SIZE = 20;
+
+let ordersShown = 0;
+
+function orderBucketKey(bucket) {
+    return 'orderHistory.' + bucket;
+}
+
+function getOrderCount() {
+    migrateOrderHistory();
+    return parseInt(localStorage.getItem('orderHistoryCount') || '0');
+}
+
+function migrateOrderHistory() {
+    const legacy = localStorage.getItem('orderHistory');
+    if (legacy === null) return;
+    
+    const orders = JSON.parse(legacy);
+    for (let i = 0; i < orders.length; i += ORDER_BUCKET_SIZE) {
+        localStorage.setItem(orderBucketKey(i / ORDER_BUCKET_SIZE), JSON.stringify(orders.slice(i, i + ORDER_BUCKET_SIZE)));
+    }
+    localStorage.setItem('orderHistoryCount', orders.length);
+    localStorage.removeItem('orderHistory');
+}
+
+function appendOrder(order) {
+    const count = getOrderCount();
+    const key = orderBucketKey(Math.floor(count / ORDER_BUCKET_SIZE));
+    const bucket = JSON.parse(localStorage.getItem(key) || '[]');
+    
+    // Drops an order left over from a write that never updated the count
+    bucket.length = count % ORDER_BUCKET_SIZE;
+    bucket.push(order);
+    localStorage.setItem(key, JSON.stringify(bucket));
+    localStorage.setItem('orderHistoryCount', count + 1);
+}
+
+// Orders with index in [from, to), oldest first, reading only the buckets they span
+function readOrders(from, to) {
+    const orders = [];
+    for (let b = Math.floor(from / ORDER_BUCKET_SIZE); b * ORDER_BUCKET_SIZE < to; b++) {
+        const bucket = JSON.parse(localStorage.getItem(orderBucketKey(b)) || '[]');
+        bucket.forEach(function(order, i) {
+            const index = b * ORDER_BUCKET_SIZE + i;
+            if (index >= from && index < to) {
+                orders.push({ index: index, order: order });
+            }
+        });
+    }
+    return orders;
+}
+
 function showOrderHistory() {
     const modal = document.getElementById('order-history-modal');
     const list = document.getElementById('order-history-list');
-    const history = JSON.parse(localStorage.getItem('orderHistory') || '[]');
     
-    if (history.length === 0) {
+    ordersShown = 0;
+    if (getOrderCount() === 0) {
         list.innerHTML = '<p class="no-orders" data-testid="no-orders">No previous orders found.</p>';
     } else {
-        list.innerHTML = history.map((order, index) => `
+        list.innerHTML = '';
+        showOlderOrders();
+    }
+    
+    modal.classList.remove('hidden');
+    document.getElementById('profile-menu').classList.add('hidden');
+}
+
+// Appends the next page of older orders to the open history list
+function showOlderOrders() {
+    const list = document.getElementById('order-history-list');
+    const moreButton = document.getElementById('older-orders-btn');
+    if (moreButton) moreButton.remove();
+    
+    const to = getOrderCount() - ordersShown;
+    const from = Math.max(0, to - ORDER_PAGE_SIZE);
+    const page = readOrders(from, to).reverse();
+    ordersShown += to - from;
+    
+    // data-testid numbers orders oldest first, so order-1 is always the first order placed
+    list.insertAdjacentHTML('beforeend', page.map(({ index, order }) => `
             <div class="order-card" data-testid="order-${index + 1}">
                 <div class="order-header">
                     <strong>${order.orderNumber}</strong>
@@ -512,11 +698,12 @@ function showOrderHistory() {
                 </div>
                 <div class="order-total">Total: $${order.total}</div>
             </div>
-        `).join('');
-    }
+        `).join(''));
     
-    modal.classList.remove('hidden');
-    document.getElementById('profile-menu').classList.add('hidden');
+    if (from > 0) {
+        list.insertAdjacentHTML('beforeend',
+            `<button id="older-orders-btn" class="secondary-btn" data-testid="older-orders-button" onclick="showOlderOrders()">Show older orders (${from} more)</button>`);
+    }
 }
 
 function closeOrderHistory() {
@@ -552,6 +739,10 @@ function saveSettings() {
 // ==========================================
 // NOTIFICATIONS
 // ==========================================
+// One auto-hide timer at a time: a new notification restarts the 3 s delay
+// instead of queueing another timer behind every add, remove and clear.
+let notificationTimer = null;
+
 function showNotification(message, type) {
     const notification = document.getElementById('notification');
     const text = document.getElementById('notification-text');
@@ -562,12 +753,13 @@ function showNotification(message, type) {
     notification.className = 'notification ' + type;
     notification.classList.remove('hidden');
     
-    setTimeout(function() {
-        hideNotification();
-    }, 3000);
+    clearTimeout(notificationTimer);
+    notificationTimer = setTimeout(hideNotification, 3000);
 }
 
 function hideNotification() {
+    clearTimeout(notificationTimer);
+    notificationTimer = null;
     const notification = document.getElementById('notification');
     if (notification) notification.classList.add('hidden');
 }
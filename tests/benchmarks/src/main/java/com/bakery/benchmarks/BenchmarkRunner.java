@@ -0,0 +1,113 @@
+package com.bakery.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Runs the benchmarks and keeps their results next to this module:
+//   results/latest.json    - the run that just finished
+//   results/baseline.json  - the accepted numbers, refreshed with -Dbench.saveBaseline=true
+// Every benchmark that got slower than the baseline by more than
+// -Dbench.threshold (default 0.15 = 15%) is reported; -Dbench.failOnRegression=true
+// turns that into a non-zero exit code for CI.
+//
+//   mvn -f tests/benchmarks/pom.xml package
+//   java -jar tests/benchmarks/target/benchmarks.jar [include-regex]
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path resultsDir = Paths.get(System.getProperty("bench.results", "results"));
+        Files.createDirectories(resultsDir);
+        Path latest = resultsDir.resolve("latest.json");
+        Path baseline = resultsDir.resolve("baseline.json");
+
+        Options options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*Benchmark")
+            .resultFormat(ResultFormatType.JSON)
+            .result(latest.toString())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        int regressions = 0;
+        if (Files.exists(baseline)) {
+            regressions = compare(results, readScores(baseline),
+                Double.parseDouble(System.getProperty("bench.threshold", "0.15")));
+        } else {
+            System.out.println("No " + baseline + " yet; rerun with -Dbench.saveBaseline=true to record one");
+        }
+
+        if (Boolean.getBoolean("bench.saveBaseline")) {
+            Files.copy(latest, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Saved " + baseline);
+        }
+        if (regressions > 0 && Boolean.getBoolean("bench.failOnRegression")) {
+            System.exit(1);
+        }
+    }
+
+    private static int compare(Collection<RunResult> results, Map<String, Double> baseline, double threshold) {
+        int regressions = 0;
+        for (RunResult result : results) {
+            Map<String, String> params = new TreeMap<>();
+            for (String key : result.getParams().getParamsKeys()) {
+                params.put(key, result.getParams().getParam(key));
+            }
+            String key = key(result.getParams().getBenchmark(), params);
+            Double before = baseline.get(key);
+            if (before == null || before <= 0) {
+                continue;
+            }
+            // Every benchmark here measures time per operation, so higher is worse
+            double after = result.getPrimaryResult().getScore();
+            double change = (after - before) / before;
+            if (change > threshold) {
+                regressions++;
+                System.out.printf("REGRESSION %s: %.3f -> %.3f %s (+%.0f%%)%n",
+                    key, before, after, result.getPrimaryResult().getScoreUnit(), change * 100);
+            }
+        }
+        System.out.println(regressions == 0 ? "No regressions against baseline" : regressions + " regression(s) against baseline");
+        return regressions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double> readScores(Path file) throws IOException {
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        List<Map<String, Object>> runs = new Json().toType(json, Json.LIST_OF_MAPS_TYPE);
+
+        Map<String, Double> scores = new HashMap<>();
+        for (Map<String, Object> run : runs) {
+            Map<String, String> params = new TreeMap<>();
+            Object rawParams = run.get("params");
+            if (rawParams instanceof Map) {
+                ((Map<String, Object>) rawParams).forEach((name, value) -> params.put(name, String.valueOf(value)));
+            }
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+            scores.put(key((String) run.get("benchmark"), params), ((Number) metric.get("score")).doubleValue());
+        }
+        return scores;
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+}
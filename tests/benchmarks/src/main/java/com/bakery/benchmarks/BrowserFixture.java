@@ -0,0 +1,70 @@
+package com.bakery.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// One headless Chrome per benchmark run, parked on a logged-in dashboard.
+// The pages are opened from the repository root (-Dsite.root overrides it).
+@State(Scope.Benchmark)
+public class BrowserFixture {
+
+    public WebDriver driver;
+    public JavascriptExecutor js;
+
+    @Setup(Level.Trial)
+    public void openDashboard() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments(
+            "--headless=new",
+            "--window-size=1366,768",
+            "--disable-gpu",
+            "--disable-dev-shm-usage",
+            "--disable-extensions",
+            "--disable-sync",
+            "--no-first-run"
+        );
+        options.setPageLoadStrategy(PageLoadStrategy.NORMAL);
+
+        driver = new ChromeDriver(options);
+        js = (JavascriptExecutor) driver;
+
+        String baseUrl = siteRoot().toUri().toString();
+        driver.get(baseUrl + "login.html");
+        js.executeScript("sessionStorage.setItem('currentUser', 'benchmark');");
+        driver.get(baseUrl + "dashboard.html");
+    }
+
+    @TearDown(Level.Trial)
+    public void quit() {
+        if (driver != null) {
+            driver.quit();
+        }
+    }
+
+    private static Path siteRoot() {
+        String configured = System.getProperty("site.root");
+        if (configured != null) {
+            return Paths.get(configured).toAbsolutePath().normalize();
+        }
+        Path dir = Paths.get("").toAbsolutePath();
+        while (dir != null && !Files.exists(dir.resolve("dashboard.html"))) {
+            dir = dir.getParent();
+        }
+        if (dir == null) {
+            throw new IllegalStateException("Could not find dashboard.html; set -Dsite.root to the bakery site directory");
+        }
+        return dir;
+    }
+}
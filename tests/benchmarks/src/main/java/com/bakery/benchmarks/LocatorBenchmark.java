@@ -0,0 +1,56 @@
+package com.bakery.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one element lookup, the way BakeryE2ETest builds locators today
+// (a fresh By.cssSelector on every call) against cached By instances and
+// plain id lookups. The chosen elements carry matching id and data-testid.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocatorBenchmark {
+
+    @Param({"search-input", "cart-count", "total-price"})
+    public String testId;
+
+    private By cachedTestIdLocator;
+    private By cachedIdLocator;
+
+    @Setup
+    public void cacheLocators() {
+        cachedTestIdLocator = By.cssSelector("[data-testid='" + testId + "']");
+        cachedIdLocator = By.id(testId);
+    }
+
+    @Benchmark
+    public WebElement cssTestIdNewBy(BrowserFixture browser) {
+        return browser.driver.findElement(By.cssSelector("[data-testid='" + testId + "']"));
+    }
+
+    @Benchmark
+    public WebElement cssTestIdCachedBy(BrowserFixture browser) {
+        return browser.driver.findElement(cachedTestIdLocator);
+    }
+
+    @Benchmark
+    public WebElement idCachedBy(BrowserFixture browser) {
+        return browser.driver.findElement(cachedIdLocator);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bakery.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the wait helpers when the element is already there, which is the
+// common case in the suite: presenceOf (findByTestId), elementToBeClickable
+// (findClickableByTestId), visibilityOf (waitForElement) and a single
+// executeScript probe that does the visibility check in the page.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitBenchmark {
+
+    private static final String TEST_ID_SELECTOR = "[data-testid='quick-add-1']";
+    private static final By LOCATOR = By.cssSelector(TEST_ID_SELECTOR);
+
+    private static final String VISIBLE_PROBE =
+        "var el = document.querySelector(arguments[0]);" +
+        "return el && el.getClientRects().length > 0 && !el.disabled ? el : null;";
+
+    private WebDriverWait wait;
+
+    @Setup
+    public void createWait(BrowserFixture browser) {
+        wait = new WebDriverWait(browser.driver, Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public WebElement presenceOf() {
+        return wait.until(ExpectedConditions.presenceOfElementLocated(LOCATOR));
+    }
+
+    @Benchmark
+    public WebElement elementToBeClickable() {
+        return wait.until(ExpectedConditions.elementToBeClickable(LOCATOR));
+    }
+
+    @Benchmark
+    public WebElement visibilityOf() {
+        return wait.until(ExpectedConditions.visibilityOfElementLocated(LOCATOR));
+    }
+
+    @Benchmark
+    public Object javascriptProbe(BrowserFixture browser) {
+        return browser.js.executeScript(VISIBLE_PROBE, TEST_ID_SELECTOR);
+    }
+}
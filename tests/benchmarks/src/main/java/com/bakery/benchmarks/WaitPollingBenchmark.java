@@ -0,0 +1,59 @@
+package com.bakery.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// How far a WebDriverWait overshoots a UI change that lands after a fixed
+// delay, for a range of polling intervals. The page un-hides #no-results
+// after appearDelayMs; the ideal score is appearDelayMs itself.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitPollingBenchmark {
+
+    private static final By NO_RESULTS = By.cssSelector("[data-testid='no-results']");
+
+    private static final String SHOW_LATER =
+        "var el = document.getElementById('no-results');" +
+        "el.classList.add('hidden');" +
+        "setTimeout(function() { el.classList.remove('hidden'); }, arguments[0]);";
+
+    @Param({"10", "50", "100", "250", "500"})
+    public long pollingMs;
+
+    @Param({"100"})
+    public long appearDelayMs;
+
+    private WebDriverWait wait;
+
+    @Setup
+    public void createWait(BrowserFixture browser) {
+        wait = new WebDriverWait(browser.driver, Duration.ofSeconds(10));
+        wait.pollingEvery(Duration.ofMillis(pollingMs));
+    }
+
+    @Benchmark
+    public WebElement waitForDelayedElement(BrowserFixture browser) {
+        browser.js.executeScript(SHOW_LATER, appearDelayMs);
+        return wait.until(ExpectedConditions.visibilityOfElementLocated(NO_RESULTS));
+    }
+}
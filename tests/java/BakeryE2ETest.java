@@ -1,41 +1,55 @@
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.Reporter;
 import org.testng.annotations.*;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class BakeryE2ETest {
     
-    private WebDriver driver;
-    private WebDriverWait wait;
+    // Each TestNG worker thread gets its own browser from the pool
+    private WebDriver driver() {
+        return DriverPool.driver();
+    }
     
-    // Update this path to match your local file location
-    private static final String BASE_URL = "file:///C:/Users/user/OneDrive/Documents/CA4-software-testing/";
+    private WebDriverWait waitFor() {
+        return DriverPool.waitFor();
+    }
     
-    @BeforeClass
-    public void setUp() {
-        // Initialize ChromeDriver (ensure chromedriver is in PATH or set system property)
-        // System.setProperty("webdriver.chrome.driver", "path/to/chromedriver.exe");
-        driver = new ChromeDriver();
-        driver.manage().window().maximize();
-        wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    // Pages are served by the worker's own local server (or -Dbase.url)
+    private String baseUrl() {
+        return DriverPool.baseUrl();
     }
     
-    @AfterClass
+    @AfterSuite(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) {
-            driver.quit();
-        }
+        DriverPool.shutdown();
     }
     
     @BeforeMethod
-    public void clearStorage() {
-        driver.get(BASE_URL + "login.html");
-        ((JavascriptExecutor) driver).executeScript("localStorage.clear(); sessionStorage.clear();");
+    public void clearStorage(Method method) {
+        // ResultCache skips a cached pass right after this; it needs no browser
+        if (ResultCache.isCachedPass(method)) {
+            return;
+        }
+        
+        // A fresh browser context per test, or an in-place wipe with -Dbrowser.isolation=profile
+        DriverPool.resetBrowser();
+        
+        // Then the test's declared starting state, built once and restored after that
+        Checkpoint checkpoint = method.getAnnotation(Checkpoint.class);
+        if (checkpoint != null) {
+            Checkpoints.startFrom(checkpoint.value(), driver(), waitFor(), baseUrl());
+        }
     }
     
     // ==========================================
@@ -43,48 +57,78 @@ public class BakeryE2ETest {
     // ==========================================
     
     private WebElement findByTestId(String testId) {
-        return wait.until(ExpectedConditions.presenceOfElementLocated(
+        return waitFor().until(ExpectedConditions.presenceOfElementLocated(
             By.cssSelector("[data-testid='" + testId + "']")
         ));
     }
     
     private WebElement findClickableByTestId(String testId) {
-        return wait.until(ExpectedConditions.elementToBeClickable(
+        return waitFor().until(ExpectedConditions.elementToBeClickable(
             By.cssSelector("[data-testid='" + testId + "']")
         ));
     }
     
     private void waitForElement(String testId) {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(
+        waitFor().until(ExpectedConditions.visibilityOfElementLocated(
             By.cssSelector("[data-testid='" + testId + "']")
         ));
     }
     
     private boolean isElementVisible(String testId) {
         try {
-            WebElement element = driver.findElement(By.cssSelector("[data-testid='" + testId + "']"));
+            WebElement element = driver().findElement(By.cssSelector("[data-testid='" + testId + "']"));
             return element.isDisplayed();
         } catch (NoSuchElementException e) {
             return false;
         }
     }
     
+    // Page objects cache their elements for the current page load
+    private DashboardPage dashboardPage() {
+        return new DashboardPage(driver(), waitFor(), baseUrl());
+    }
+    
+    // Skips the page's pending setTimeout delays via the virtual clock;
+    // without one the following wait simply takes the real time
+    private void fastForward(long millis) {
+        VirtualClock.advance(driver(), millis);
+    }
+    
+    // One round-trip for the state of many elements (see DomSnapshot)
+    private DomSnapshot snapshot(String... testIds) {
+        return DomSnapshot.of(driver(), testIds);
+    }
+    
+    // Sets all the fields in one round-trip (see FormFill); tests about typing
+    // itself still use sendKeys
+    private void fillForm(Map<String, ?> values) {
+        FormFill.fill(driver(), values);
+    }
+    
+    private static String[] menuItems(int... numbers) {
+        String[] testIds = new String[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            testIds[i] = "menu-item-" + numbers[i];
+        }
+        return testIds;
+    }
+    
     private void registerUser(String username, String email, String password) {
-        driver.get(BASE_URL + "register.html");
-        
-        findByTestId("reg-username-input").sendKeys(username);
-        findByTestId("reg-email-input").sendKeys(email);
-        findByTestId("reg-password-input").sendKeys(password);
-        findByTestId("reg-confirm-input").sendKeys(password);
-        findByTestId("terms-checkbox").click();
+        driver().get(baseUrl() + "register.html");
+        
+        fillForm(FormFill.fields(
+            "reg-username-input", username,
+            "reg-email-input", email,
+            "reg-password-input", password,
+            "reg-confirm-input", password,
+            "terms-checkbox", true));
         findClickableByTestId("register-button").click();
     }
     
     private void loginUser(String username, String password) {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
-        findByTestId("username-input").sendKeys(username);
-        findByTestId("password-input").sendKeys(password);
+        fillForm(FormFill.fields("username-input", username, "password-input", password));
         findClickableByTestId("login-button").click();
     }
     
@@ -94,7 +138,7 @@ public class BakeryE2ETest {
     
     @Test(priority = 1)
     public void testRegisterPageLoads() {
-        driver.get(BASE_URL + "register.html");
+        driver().get(baseUrl() + "register.html");
         
         Assert.assertTrue(findByTestId("register-container").isDisplayed());
         Assert.assertTrue(findByTestId("register-title").getText().contains("Create Account"));
@@ -102,7 +146,7 @@ public class BakeryE2ETest {
     
     @Test(priority = 2)
     public void testRegisterWithEmptyFields() {
-        driver.get(BASE_URL + "register.html");
+        driver().get(baseUrl() + "register.html");
         
         findClickableByTestId("register-button").click();
         
@@ -113,13 +157,14 @@ public class BakeryE2ETest {
     
     @Test(priority = 3)
     public void testRegisterWithShortUsername() {
-        driver.get(BASE_URL + "register.html");
-        
-        findByTestId("reg-username-input").sendKeys("ab");
-        findByTestId("reg-email-input").sendKeys("test@email.com");
-        findByTestId("reg-password-input").sendKeys("password123");
-        findByTestId("reg-confirm-input").sendKeys("password123");
-        findByTestId("terms-checkbox").click();
+        driver().get(baseUrl() + "register.html");
+        
+        fillForm(FormFill.fields(
+            "reg-username-input", "ab",
+            "reg-email-input", "test@email.com",
+            "reg-password-input", "password123",
+            "reg-confirm-input", "password123",
+            "terms-checkbox", true));
         findClickableByTestId("register-button").click();
         
         WebElement usernameError = findByTestId("reg-username-error");
@@ -128,13 +173,14 @@ public class BakeryE2ETest {
     
     @Test(priority = 4)
     public void testRegisterWithInvalidEmail() {
-        driver.get(BASE_URL + "register.html");
-        
-        findByTestId("reg-username-input").sendKeys("testuser");
-        findByTestId("reg-email-input").sendKeys("invalidemail");
-        findByTestId("reg-password-input").sendKeys("password123");
-        findByTestId("reg-confirm-input").sendKeys("password123");
-        findByTestId("terms-checkbox").click();
+        driver().get(baseUrl() + "register.html");
+        
+        fillForm(FormFill.fields(
+            "reg-username-input", "testuser",
+            "reg-email-input", "invalidemail",
+            "reg-password-input", "password123",
+            "reg-confirm-input", "password123",
+            "terms-checkbox", true));
         findClickableByTestId("register-button").click();
         
         WebElement emailError = findByTestId("reg-email-error");
@@ -143,13 +189,14 @@ public class BakeryE2ETest {
     
     @Test(priority = 5)
     public void testRegisterWithMismatchedPasswords() {
-        driver.get(BASE_URL + "register.html");
-        
-        findByTestId("reg-username-input").sendKeys("testuser");
-        findByTestId("reg-email-input").sendKeys("test@email.com");
-        findByTestId("reg-password-input").sendKeys("password123");
-        findByTestId("reg-confirm-input").sendKeys("differentpassword");
-        findByTestId("terms-checkbox").click();
+        driver().get(baseUrl() + "register.html");
+        
+        fillForm(FormFill.fields(
+            "reg-username-input", "testuser",
+            "reg-email-input", "test@email.com",
+            "reg-password-input", "password123",
+            "reg-confirm-input", "differentpassword",
+            "terms-checkbox", true));
         findClickableByTestId("register-button").click();
         
         WebElement confirmError = findByTestId("reg-confirm-error");
@@ -158,13 +205,14 @@ public class BakeryE2ETest {
     
     @Test(priority = 6)
     public void testRegisterWithoutTerms() {
-        driver.get(BASE_URL + "register.html");
-        
-        findByTestId("reg-username-input").sendKeys("testuser");
-        findByTestId("reg-email-input").sendKeys("test@email.com");
-        findByTestId("reg-password-input").sendKeys("password123");
-        findByTestId("reg-confirm-input").sendKeys("password123");
-        // Don't check terms checkbox
+        driver().get(baseUrl() + "register.html");
+        
+        fillForm(FormFill.fields(
+            "reg-username-input", "testuser",
+            "reg-email-input", "test@email.com",
+            "reg-password-input", "password123",
+            "reg-confirm-input", "password123",
+            "terms-checkbox", false)); // Don't check terms checkbox
         findClickableByTestId("register-button").click();
         
         WebElement registerError = findByTestId("register-error");
@@ -177,22 +225,39 @@ public class BakeryE2ETest {
         
         // Should show success message
         WebElement successMsg = findByTestId("register-success");
-        wait.until(ExpectedConditions.visibilityOf(successMsg));
+        waitFor().until(ExpectedConditions.visibilityOf(successMsg));
         Assert.assertTrue(successMsg.getText().contains("successful"));
         
         // Should redirect to login page
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        fastForward(UserJourney.REGISTER_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("login.html"));
     }
     
     @Test(priority = 8)
     public void testNavigateToLoginFromRegister() {
-        driver.get(BASE_URL + "register.html");
+        driver().get(baseUrl() + "register.html");
         
         findClickableByTestId("login-link").click();
         
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("login.html"));
+    }
+    
+    // Real keystrokes: the strength bar follows every input event as the password grows
+    @Test(priority = 9)
+    public void testPasswordStrengthWhileTyping() {
+        driver().get(baseUrl() + "register.html");
+        
+        WebElement password = findByTestId("reg-password-input");
+        WebElement strengthBar = findByTestId("password-strength").findElement(By.className("strength-bar"));
+        
+        password.sendKeys("pass");
+        Assert.assertTrue(strengthBar.getAttribute("style").contains("width: 0%"));
+        password.sendKeys("word1");
+        Assert.assertTrue(strengthBar.getAttribute("style").contains("width: 40%"));
+        password.sendKeys("X!");
+        Assert.assertTrue(strengthBar.getAttribute("style").contains("width: 100%"));
     }
     
     // ==========================================
@@ -201,7 +266,7 @@ public class BakeryE2ETest {
     
     @Test(priority = 10)
     public void testLoginPageLoads() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
         Assert.assertTrue(findByTestId("login-container").isDisplayed());
         Assert.assertTrue(findByTestId("login-title").getText().contains("Login"));
@@ -209,7 +274,7 @@ public class BakeryE2ETest {
     
     @Test(priority = 11)
     public void testLoginWithEmptyFields() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
         findClickableByTestId("login-button").click();
         
@@ -219,14 +284,13 @@ public class BakeryE2ETest {
     
     @Test(priority = 12)
     public void testLoginWithInvalidCredentials() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
-        findByTestId("username-input").sendKeys("wronguser");
-        findByTestId("password-input").sendKeys("wrongpassword");
+        fillForm(FormFill.fields("username-input", "wronguser", "password-input", "wrongpassword"));
         findClickableByTestId("login-button").click();
         
         WebElement errorMsg = findByTestId("login-error");
-        wait.until(ExpectedConditions.visibilityOf(errorMsg));
+        waitFor().until(ExpectedConditions.visibilityOf(errorMsg));
         Assert.assertTrue(errorMsg.getText().contains("Invalid"));
     }
     
@@ -234,21 +298,22 @@ public class BakeryE2ETest {
     public void testSuccessfulLogin() {
         // First register a user
         registerUser("logintest", "login@test.com", "testpass123");
-        wait.until(ExpectedConditions.urlContains("login.html"));
+        fastForward(UserJourney.REGISTER_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
         
         // Now login
-        findByTestId("username-input").sendKeys("logintest");
-        findByTestId("password-input").sendKeys("testpass123");
+        fillForm(FormFill.fields("username-input", "logintest", "password-input", "testpass123"));
         findClickableByTestId("login-button").click();
         
         // Should redirect to dashboard
-        wait.until(ExpectedConditions.urlContains("dashboard.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("dashboard.html"));
+        fastForward(UserJourney.LOGIN_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("dashboard.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("dashboard.html"));
     }
     
     @Test(priority = 14)
     public void testForgotPasswordModal() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
         findClickableByTestId("forgot-password-link").click();
         
@@ -259,7 +324,7 @@ public class BakeryE2ETest {
     
     @Test(priority = 15)
     public void testForgotPasswordWithValidEmail() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
         findClickableByTestId("forgot-password-link").click();
         findByTestId("reset-email-input").sendKeys("test@email.com");
@@ -271,12 +336,12 @@ public class BakeryE2ETest {
     
     @Test(priority = 16)
     public void testNavigateToRegisterFromLogin() {
-        driver.get(BASE_URL + "login.html");
+        driver().get(baseUrl() + "login.html");
         
         findClickableByTestId("register-link").click();
         
-        wait.until(ExpectedConditions.urlContains("register.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("register.html"));
+        waitFor().until(ExpectedConditions.urlContains("register.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("register.html"));
     }
     
     // ==========================================
@@ -285,24 +350,25 @@ public class BakeryE2ETest {
     
     @Test(priority = 20)
     public void testDashboardRequiresLogin() {
-        driver.get(BASE_URL + "dashboard.html");
+        driver().get(baseUrl() + "dashboard.html");
         
         // Should redirect to login
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("login.html"));
     }
     
     @Test(priority = 21)
     public void testDashboardLoadsAfterLogin() {
         // Register and login
         registerUser("dashtest", "dash@test.com", "dashpass123");
-        wait.until(ExpectedConditions.urlContains("login.html"));
+        fastForward(UserJourney.REGISTER_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
         
-        findByTestId("username-input").sendKeys("dashtest");
-        findByTestId("password-input").sendKeys("dashpass123");
+        fillForm(FormFill.fields("username-input", "dashtest", "password-input", "dashpass123"));
         findClickableByTestId("login-button").click();
         
-        wait.until(ExpectedConditions.urlContains("dashboard.html"));
+        fastForward(UserJourney.LOGIN_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("dashboard.html"));
         
         Assert.assertTrue(findByTestId("dashboard-header").isDisplayed());
         Assert.assertTrue(findByTestId("menu-section").isDisplayed());
@@ -312,13 +378,14 @@ public class BakeryE2ETest {
     @Test(priority = 22)
     public void testDisplayNameShown() {
         registerUser("nametest", "name@test.com", "namepass123");
-        wait.until(ExpectedConditions.urlContains("login.html"));
+        fastForward(UserJourney.REGISTER_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
         
-        findByTestId("username-input").sendKeys("nametest");
-        findByTestId("password-input").sendKeys("namepass123");
+        fillForm(FormFill.fields("username-input", "nametest", "password-input", "namepass123"));
         findClickableByTestId("login-button").click();
         
-        wait.until(ExpectedConditions.urlContains("dashboard.html"));
+        fastForward(UserJourney.LOGIN_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("dashboard.html"));
         
         findClickableByTestId("profile-button").click();
         WebElement displayName = findByTestId("display-name");
@@ -345,12 +412,15 @@ public class BakeryE2ETest {
         WebElement searchInput = findByTestId("search-input");
         searchInput.sendKeys("Chocolate");
         
+        DomSnapshot menu = snapshot(menuItems(1, 2, 3, 4, 5, 6));
+        
         // Chocolate Donut should be visible
-        Assert.assertTrue(findByTestId("menu-item-1").isDisplayed());
+        Assert.assertTrue(menu.get("menu-item-1").isVisible());
         
         // Other items should be hidden (check via class)
-        WebElement strawberryItem = driver.findElement(By.cssSelector("[data-testid='menu-item-2']"));
-        Assert.assertTrue(strawberryItem.getAttribute("class").contains("hidden"));
+        for (int i = 2; i <= 6; i++) {
+            Assert.assertTrue(menu.get("menu-item-" + i).hasClass("hidden"), "menu-item-" + i);
+        }
     }
     
     @Test(priority = 32)
@@ -374,8 +444,9 @@ public class BakeryE2ETest {
         findClickableByTestId("search-clear").click();
         
         // All items should be visible again
-        Assert.assertFalse(findByTestId("menu-item-1").getAttribute("class").contains("hidden"));
-        Assert.assertFalse(findByTestId("menu-item-2").getAttribute("class").contains("hidden"));
+        for (DomSnapshot.ElementState item : snapshot(menuItems(1, 2, 3, 4, 5, 6)).asMap().values()) {
+            Assert.assertFalse(item.hasClass("hidden"));
+        }
     }
     
     @Test(priority = 34)
@@ -385,11 +456,16 @@ public class BakeryE2ETest {
         // Filter by drinks
         findClickableByTestId("filter-drinks").click();
         
-        // Coffee should be visible
-        Assert.assertFalse(findByTestId("menu-item-5").getAttribute("class").contains("hidden"));
+        DomSnapshot menu = snapshot(menuItems(1, 2, 3, 4, 5, 6));
         
-        // Donuts should be hidden
-        Assert.assertTrue(findByTestId("menu-item-1").getAttribute("class").contains("hidden"));
+        // Coffee and Latte should be visible
+        Assert.assertFalse(menu.get("menu-item-5").hasClass("hidden"));
+        Assert.assertFalse(menu.get("menu-item-6").hasClass("hidden"));
+        
+        // Donuts and cakes should be hidden
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertTrue(menu.get("menu-item-" + i).hasClass("hidden"), "menu-item-" + i);
+        }
     }
     
     @Test(priority = 35)
@@ -403,8 +479,9 @@ public class BakeryE2ETest {
         findClickableByTestId("filter-all").click();
         
         // All items should be visible
-        Assert.assertFalse(findByTestId("menu-item-1").getAttribute("class").contains("hidden"));
-        Assert.assertFalse(findByTestId("menu-item-5").getAttribute("class").contains("hidden"));
+        for (DomSnapshot.ElementState item : snapshot(menuItems(1, 2, 3, 4, 5, 6)).asMap().values()) {
+            Assert.assertFalse(item.hasClass("hidden"));
+        }
     }
     
     // ==========================================
@@ -425,12 +502,14 @@ public class BakeryE2ETest {
         
         findClickableByTestId("quick-add-1").click();
         
+        DomSnapshot cart = snapshot("empty-cart", "cart-count", "cart-item-1");
+        
         // Cart should no longer be empty
-        WebElement emptyCart = driver.findElement(By.cssSelector("[data-testid='empty-cart']"));
-        Assert.assertTrue(emptyCart.getAttribute("class").contains("hidden"));
+        Assert.assertTrue(cart.get("empty-cart").hasClass("hidden"));
+        Assert.assertTrue(cart.get("cart-item-1").isVisible());
         
         // Cart count should update
-        Assert.assertEquals(findByTestId("cart-count").getText(), "1 item");
+        Assert.assertEquals(cart.get("cart-count").getText(), "1 item");
     }
     
     @Test(priority = 42)
@@ -454,23 +533,22 @@ public class BakeryE2ETest {
     @Test(priority = 43)
     public void testQuantityButtons() {
         setupLoggedInSession();
-        
-        WebElement qtyInput = findByTestId("quantity-input");
+        DashboardPage dashboard = dashboardPage();
         
         // Initial value should be 1
-        Assert.assertEquals(qtyInput.getAttribute("value"), "1");
+        Assert.assertEquals(dashboard.quantity(), "1");
         
         // Click increase
-        findClickableByTestId("qty-increase").click();
-        Assert.assertEquals(qtyInput.getAttribute("value"), "2");
+        dashboard.increaseQuantity();
+        Assert.assertEquals(dashboard.quantity(), "2");
         
         // Click decrease
-        findClickableByTestId("qty-decrease").click();
-        Assert.assertEquals(qtyInput.getAttribute("value"), "1");
+        dashboard.decreaseQuantity();
+        Assert.assertEquals(dashboard.quantity(), "1");
         
         // Should not go below 1
-        findClickableByTestId("qty-decrease").click();
-        Assert.assertEquals(qtyInput.getAttribute("value"), "1");
+        dashboard.decreaseQuantity();
+        Assert.assertEquals(dashboard.quantity(), "1");
     }
     
     @Test(priority = 44)
@@ -489,31 +567,23 @@ public class BakeryE2ETest {
     }
     
     @Test(priority = 45)
+    @Checkpoint("cart-with-two-items")
     public void testClearCart() {
-        setupLoggedInSession();
-        
-        // Add multiple items
-        findClickableByTestId("quick-add-1").click();
-        findClickableByTestId("quick-add-2").click();
-        
         // Clear cart
         findClickableByTestId("clear-cart-button").click();
         
+        DomSnapshot cart = snapshot("cart-count", "empty-cart", "cart-table");
+        
         // Cart should be empty
-        Assert.assertEquals(findByTestId("cart-count").getText(), "0 items");
-        Assert.assertTrue(findByTestId("empty-cart").isDisplayed());
+        Assert.assertEquals(cart.get("cart-count").getText(), "0 items");
+        Assert.assertTrue(cart.get("empty-cart").isVisible());
+        Assert.assertTrue(cart.get("cart-table").hasClass("hidden"));
     }
     
     @Test(priority = 46)
+    @Checkpoint("cart-with-two-items")
     public void testCartTotalCalculation() {
-        setupLoggedInSession();
-        
-        // Add Chocolate Donut ($2.50)
-        findClickableByTestId("quick-add-1").click();
-        
-        // Add Strawberry Tart ($4.00)
-        findClickableByTestId("quick-add-2").click();
-        
+        // Chocolate Donut ($2.50) and Strawberry Tart ($4.00) in the cart
         // Subtotal should be $6.50
         // Tax (10%) should be $0.65
         // Total should be $7.15
@@ -526,12 +596,8 @@ public class BakeryE2ETest {
     // ==========================================
     
     @Test(priority = 50)
+    @Checkpoint("cart-with-two-items")
     public void testValidPromoCode() {
-        setupLoggedInSession();
-        
-        // Add item first
-        findClickableByTestId("quick-add-1").click();
-        
         // Apply valid promo code
         findByTestId("promo-input").sendKeys("SWEET10");
         findClickableByTestId("apply-promo-button").click();
@@ -541,12 +607,8 @@ public class BakeryE2ETest {
     }
     
     @Test(priority = 51)
+    @Checkpoint("cart-with-two-items")
     public void testInvalidPromoCode() {
-        setupLoggedInSession();
-        
-        // Add item first
-        findClickableByTestId("quick-add-1").click();
-        
         // Apply invalid promo code
         findByTestId("promo-input").sendKeys("INVALIDCODE");
         findClickableByTestId("apply-promo-button").click();
@@ -556,15 +618,8 @@ public class BakeryE2ETest {
     }
     
     @Test(priority = 52)
+    @Checkpoint("promo-SWEET10-applied")
     public void testPromoCodeAppliedOnce() {
-        setupLoggedInSession();
-        
-        findClickableByTestId("quick-add-1").click();
-        
-        // Apply first promo
-        findByTestId("promo-input").sendKeys("SWEET10");
-        findClickableByTestId("apply-promo-button").click();
-        
         // Try to apply another
         WebElement promoInput = findByTestId("promo-input");
         promoInput.clear();
@@ -575,28 +630,35 @@ public class BakeryE2ETest {
         Assert.assertTrue(promoMsg.getText().contains("already been applied"));
     }
     
+    // The checkpoint looks the same whether it was just built or restored
+    @Test(priority = 53)
+    @Checkpoint("promo-SWEET10-applied")
+    public void testPromoCheckpointState() {
+        DomSnapshot cart = snapshot("cart-count", "cart-item-2", "total-price", "promo-message");
+        
+        Assert.assertEquals(cart.get("cart-count").getText(), "2 items");
+        Assert.assertTrue(cart.get("cart-item-2").isVisible());
+        // $7.15 less 10%
+        Assert.assertEquals(cart.get("total-price").getText(), "6.44");
+        Assert.assertTrue(cart.get("promo-message").getText().contains("10%"));
+    }
+    
     // ==========================================
     // CHECKOUT TESTS
     // ==========================================
     
     @Test(priority = 60)
+    @Checkpoint("logged-in")
     public void testCheckoutWithEmptyCart() {
-        setupLoggedInSession();
-        
         // Try to checkout with empty cart - button might not be visible
         // The cart summary section should be hidden when cart is empty
-        WebElement cartSummary = driver.findElement(By.cssSelector("[data-testid='cart-summary']"));
+        WebElement cartSummary = driver().findElement(By.cssSelector("[data-testid='cart-summary']"));
         Assert.assertTrue(cartSummary.getAttribute("class").contains("hidden"));
     }
     
     @Test(priority = 61)
+    @Checkpoint("cart-with-two-items")
     public void testSuccessfulCheckout() {
-        setupLoggedInSession();
-        
-        // Add items
-        findClickableByTestId("quick-add-1").click();
-        findClickableByTestId("quick-add-2").click();
-        
         // Checkout
         findClickableByTestId("checkout-button").click();
         
@@ -658,6 +720,36 @@ public class BakeryE2ETest {
         Assert.assertTrue(order.isDisplayed());
     }
     
+    @Test(priority = 72)
+    public void testOrderHistoryPaging() {
+        // 25 orders in the old single-array format, split into buckets on first read
+        StringBuilder orders = new StringBuilder("[");
+        for (int i = 1; i <= 25; i++) {
+            orders.append(i > 1 ? "," : "")
+                .append("{\"orderNumber\":\"ORD-").append(i).append("\",\"date\":\"1/1/2024\",")
+                .append("\"items\":[{\"name\":\"Glazed Donut\",\"qty\":1}],\"total\":\"2.75\"}");
+        }
+        SessionSeeder.forUser("testuser" + System.currentTimeMillis())
+            .orderHistory(orders.append("]").toString())
+            .seed(driver(), baseUrl());
+        
+        DashboardPage dashboard = dashboardPage();
+        dashboard.openOrderHistory();
+        
+        // Newest page first: orders 25 down to 6
+        DomSnapshot firstPage = snapshot("order-25", "order-6", "order-5", "older-orders-button");
+        Assert.assertTrue(firstPage.get("order-25").isVisible(), "Newest order should be on the first page");
+        Assert.assertTrue(firstPage.get("order-6").isPresent());
+        Assert.assertFalse(firstPage.get("order-5").isPresent(), "Older orders should wait for the next page");
+        Assert.assertTrue(firstPage.get("older-orders-button").isVisible());
+        
+        dashboard.showOlderOrders();
+        DomSnapshot secondPage = snapshot("order-5", "order-1", "older-orders-button");
+        Assert.assertTrue(secondPage.get("order-5").isPresent());
+        Assert.assertTrue(secondPage.get("order-1").isPresent());
+        Assert.assertFalse(secondPage.get("older-orders-button").isPresent(), "No pages should be left");
+    }
+    
     // ==========================================
     // SETTINGS TESTS
     // ==========================================
@@ -704,8 +796,9 @@ public class BakeryE2ETest {
         findClickableByTestId("logout-button").click();
         
         // Should redirect to login
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        fastForward(UserJourney.LOGOUT_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("login.html"));
     }
     
     @Test(priority = 91)
@@ -715,14 +808,15 @@ public class BakeryE2ETest {
         findClickableByTestId("profile-button").click();
         findClickableByTestId("logout-button").click();
         
-        wait.until(ExpectedConditions.urlContains("login.html"));
+        fastForward(UserJourney.LOGOUT_REDIRECT_MS);
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
         
         // Try to access dashboard directly
-        driver.get(BASE_URL + "dashboard.html");
+        driver().get(baseUrl() + "dashboard.html");
         
         // Should redirect to login
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        waitFor().until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver().getCurrentUrl().contains("login.html"));
     }
     
     // ==========================================
@@ -731,72 +825,378 @@ public class BakeryE2ETest {
     
     @Test(priority = 100)
     public void testCompleteUserJourney() {
-        String username = "e2euser" + System.currentTimeMillis();
-        String email = username + "@test.com";
-        String password = "e2epass123";
-        
-        // 1. Register
-        driver.get(BASE_URL + "register.html");
-        findByTestId("reg-username-input").sendKeys(username);
-        findByTestId("reg-email-input").sendKeys(email);
-        findByTestId("reg-password-input").sendKeys(password);
-        findByTestId("reg-confirm-input").sendKeys(password);
-        findByTestId("terms-checkbox").click();
-        findClickableByTestId("register-button").click();
+        // register, login, search, quick-add, custom order, promo, checkout,
+        // order history and logout; the same journey LoadDriver runs under load
+        new UserJourney(driver(), waitFor(), baseUrl(), "e2euser" + System.currentTimeMillis()).runAll();
+    }
+    
+    // ==========================================
+    // PERFORMANCE TESTS (testng-perf.xml, mvn test -Pperf)
+    // ==========================================
+    
+    // Replaces the 6-row menu with N generated rows named "Sku <n> <flavour> <category>"
+    private static final String INJECT_MENU_ROWS_SCRIPT =
+        "var count = arguments[0], categories = ['donut', 'cake', 'drink'];" +
+        "var flavours = ['Chocolate', 'Strawberry', 'Vanilla', 'Caramel', 'Lemon'];" +
+        "var html = new Array(count);" +
+        "for (var i = 0; i < count; i++) {" +
+        "  var category = categories[i % 3];" +
+        "  html[i] = '<tr data-category=\"' + category + '\" data-testid=\"menu-item-' + (i + 1) + '\">'" +
+        "    + '<td>Sku ' + (i + 1) + ' ' + flavours[i % 5] + ' ' + category + '</td>'" +
+        "    + '<td>' + category + '</td><td>$1.00</td><td></td></tr>';" +
+        "}" +
+        "document.getElementById('menu-body').innerHTML = html.join('');";
+    
+    // Types arguments[0] one key at a time and returns, per keystroke, the ms
+    // from the keyup until the filtered menu has been painted (latency) and
+    // the part of that after the debounce delay ran out (work). On debounced
+    // catalogues a timer with the same delay is set just before the keyup, so
+    // it fires right before applySearch.
+    private static final String MEASURE_SEARCH_SCRIPT =
+        "var term = arguments[0], done = arguments[arguments.length - 1];" +
+        "var input = document.getElementById('search-input');" +
+        "clearSearch();" +
+        "var result = { latency: [], work: [] }, i = 0;" +
+        "function next() {" +
+        "  if (i === term.length) { done(result); return; }" +
+        "  var start = performance.now(), applied = start;" +
+        "  if (getMenuIndex().length > SEARCH_DEBOUNCE_ROWS) {" +
+        "    setTimeout(function() { applied = performance.now(); }, SEARCH_DEBOUNCE_MS);" +
+        "  }" +
+        "  document.addEventListener('menu:filtered', function onFiltered() {" +
+        "    document.removeEventListener('menu:filtered', onFiltered);" +
+        "    requestAnimationFrame(function() { setTimeout(function() {" +
+        "      var painted = performance.now();" +
+        "      result.latency.push(painted - start); result.work.push(painted - applied); next();" +
+        "    }, 0); });" +
+        "  });" +
+        "  input.value += term.charAt(i++);" +
+        "  input.dispatchEvent(new KeyboardEvent('keyup', { bubbles: true }));" +
+        "}" +
+        "next();";
+    
+    // Clicks each filter button in arguments[0] and returns click-to-paint ms
+    private static final String MEASURE_FILTER_SCRIPT =
+        "var testIds = arguments[0], done = arguments[arguments.length - 1];" +
+        "var latencies = [], i = 0;" +
+        "function next() {" +
+        "  if (i === testIds.length) { done(latencies); return; }" +
+        "  var start = performance.now();" +
+        "  document.querySelector(\"[data-testid='\" + testIds[i++] + \"']\").click();" +
+        "  requestAnimationFrame(function() { setTimeout(function() {" +
+        "    latencies.push(performance.now() - start); next();" +
+        "  }, 0); });" +
+        "}" +
+        "next();";
+    
+    @Test(groups = "perf")
+    public void testMenuSearchScaling() {
+        // 300 rows are searched on every keystroke, the larger sizes after the debounce
+        String[] sizes = System.getProperty("menu.sizes", "300,1000,10000,50000").split(",");
+        double budgetMs = Double.parseDouble(System.getProperty("menu.bench.budgetMs", "250"));
+        double maxGrowth = Double.parseDouble(System.getProperty("menu.bench.maxGrowth", "3"));
         
-        // 2. Wait for redirect to login
-        wait.until(ExpectedConditions.urlContains("login.html"));
+        setupLoggedInSession();
+        JavascriptExecutor js = (JavascriptExecutor) driver();
+        driver().manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
         
-        // 3. Login
-        findByTestId("username-input").sendKeys(username);
-        findByTestId("password-input").sendKeys(password);
-        findClickableByTestId("login-button").click();
+        double smallestMedian = -1;
+        double largestMedian = -1;
+        try {
+            for (String size : sizes) {
+                int rows = Integer.parseInt(size.trim());
+                js.executeScript(INJECT_MENU_ROWS_SCRIPT, rows);
+                // Warm-up pass builds the menu index for the new rows
+                js.executeAsyncScript(MEASURE_SEARCH_SCRIPT, "sku");
+                
+                Map<?, ?> typed = (Map<?, ?>) js.executeAsyncScript(MEASURE_SEARCH_SCRIPT, "sku 12 van");
+                List<Long> search = latencies(typed.get("latency"), "search", rows);
+                List<Long> work = latencies(typed.get("work"), "search-work", rows);
+                List<Long> filter = latencies(js.executeAsyncScript(MEASURE_FILTER_SCRIPT,
+                    Arrays.asList("filter-drinks", "filter-cakes", "filter-donuts", "filter-all")), "filter", rows);
+                
+                double searchP95 = StepTimings.percentile(search, 95) / 1e6;
+                double workMedian = StepTimings.percentile(work, 50) / 1e6;
+                Reporter.log(String.format("menu rows=%d search p50=%.1fms p95=%.1fms (work p50=%.1fms), filter p50=%.1fms p95=%.1fms",
+                    rows, StepTimings.percentile(search, 50) / 1e6, searchP95, workMedian,
+                    StepTimings.percentile(filter, 50) / 1e6, StepTimings.percentile(filter, 95) / 1e6), true);
+                
+                Assert.assertTrue(searchP95 <= budgetMs,
+                    "search p95 " + searchP95 + "ms over " + budgetMs + "ms budget at " + rows + " rows");
+                if (smallestMedian < 0) {
+                    smallestMedian = workMedian;
+                }
+                largestMedian = workMedian;
+            }
+        } finally {
+            driver().manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        }
         
-        // 4. Wait for dashboard
-        wait.until(ExpectedConditions.urlContains("dashboard.html"));
+        // The search itself should stay roughly flat as the catalogue grows: the
+        // largest size's work p50 may be at most maxGrowth (3) times the
+        // smallest's, counted as no less than 1 ms so timer jitter on
+        // sub-millisecond work is not growth. Work that scans every row grows
+        // with the row count, which is 166x from 300 to 50000 rows. The constant
+        // debounce delay is left out so it cannot hide real growth.
+        Assert.assertTrue(largestMedian <= Math.max(smallestMedian, 1.0) * maxGrowth,
+            "search work p50 grew from " + smallestMedian + "ms to " + largestMedian + "ms, over " + maxGrowth + "x");
+    }
+    
+    // Adds arguments[0] distinct lines, then makes arguments[1] quantity changes
+    // spread over them, then removes every tenth line. Each operation is timed
+    // through the forced layout it causes; returns ms per operation kind.
+    private static final String CART_STRESS_SCRIPT =
+        "var lines = arguments[0], changes = arguments[1];" +
+        "var body = document.getElementById('cart-body');" +
+        "var result = { add: [], change: [], remove: [] };" +
+        "function timed(kind, operation) {" +
+        "  var start = performance.now();" +
+        "  operation();" +
+        "  body.offsetHeight;" +
+        "  result[kind].push(performance.now() - start);" +
+        "}" +
+        "function price(i) { return (i % 8 + 1) * 0.5; }" +
+        "for (var i = 0; i < lines; i++) {" +
+        "  timed('add', function() { quickAdd('Stress item ' + i, price(i)); });" +
+        "}" +
+        "for (var j = 0; j < changes; j++) {" +
+        "  timed('change', function() { addItemToCart('Stress item ' + (j % lines), price(j % lines), j % 3 + 1); });" +
+        "}" +
+        "var doomed = cart.filter(function(item, index) { return index % 10 === 0; });" +
+        "doomed.forEach(function(item) {" +
+        "  timed('remove', function() { removeFromCart(item.id); });" +
+        "});" +
+        "return result;";
+    
+    @Test(groups = "perf")
+    public void testLargeCartStress() {
+        int lines = Integer.getInteger("cart.lines", 500);
+        int changes = Integer.getInteger("cart.changes", 5000);
+        double budgetMs = Double.parseDouble(System.getProperty("cart.bench.budgetMs", "16"));
+        double maxGrowth = Double.parseDouble(System.getProperty("cart.bench.maxGrowth", "5"));
         
-        // 5. Search for an item
-        findByTestId("search-input").sendKeys("Coffee");
-        Assert.assertFalse(findByTestId("menu-item-5").getAttribute("class").contains("hidden"));
-        findClickableByTestId("search-clear").click();
+        setupLoggedInSession();
+        DashboardPage dashboard = dashboardPage();
+        driver().manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
         
-        // 6. Add items to cart
-        findClickableByTestId("quick-add-1").click(); // Chocolate Donut
-        findClickableByTestId("quick-add-5").click(); // Hot Coffee
+        Map<?, ?> result;
+        try {
+            result = (Map<?, ?>) ((JavascriptExecutor) driver()).executeScript(CART_STRESS_SCRIPT, lines, changes);
+        } finally {
+            driver().manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        }
         
-        // 7. Add more via custom order
-        Select itemSelect = new Select(findByTestId("item-select"));
-        itemSelect.selectByVisibleText("Strawberry Tart - $4.00");
-        findClickableByTestId("qty-increase").click();
-        findClickableByTestId("add-to-cart-button").click();
+        // Expected state, mirroring the script: prices are multiples of $0.50,
+        // so subtotal and the 10% tax stay exact in cents
+        long[] quantities = new long[lines];
+        Arrays.fill(quantities, 1);
+        for (int j = 0; j < changes; j++) {
+            quantities[j % lines] += j % 3 + 1;
+        }
+        long subtotalCents = 0;
+        long items = 0;
+        int remaining = 0;
+        for (int i = 0; i < lines; i++) {
+            if (i % 10 != 0) {
+                subtotalCents += (i % 8 + 1) * 50L * quantities[i];
+                items += quantities[i];
+                remaining++;
+            }
+        }
+        long totalCents = subtotalCents * 11 / 10;
+        
+        Assert.assertEquals(dashboard.totalPrice(), String.format("%d.%02d", totalCents / 100, totalCents % 100));
+        Assert.assertEquals(dashboard.cartCount(), items + " items");
+        DomSnapshot rows = snapshot("cart-item-" + remaining, "cart-item-" + (remaining + 1));
+        Assert.assertTrue(rows.get("cart-item-" + remaining).isPresent(), "Last cart row should be renumbered");
+        Assert.assertFalse(rows.get("cart-item-" + (remaining + 1)).isPresent(), "Removed rows should be gone");
+        
+        for (String kind : Arrays.asList("add", "change", "remove")) {
+            List<Long> sorted = latencies(result.get(kind), "cart-" + kind, lines);
+            double p95 = StepTimings.percentile(sorted, 95) / 1e6;
+            Reporter.log(String.format("cart lines=%d %s p50=%.2fms p95=%.2fms",
+                lines, kind, StepTimings.percentile(sorted, 50) / 1e6, p95), true);
+            Assert.assertTrue(p95 <= budgetMs, "cart " + kind + " p95 " + p95 + "ms over " + budgetMs + "ms budget");
+        }
         
-        // 8. Apply promo code
-        findByTestId("promo-input").sendKeys("SWEET10");
-        findClickableByTestId("apply-promo-button").click();
+        // Adding line N should cost about the same as adding line 1
+        List<?> addMillis = (List<?>) result.get("add");
+        int window = Math.max(1, lines / 10);
+        double first = medianMillis(addMillis.subList(0, window));
+        double last = medianMillis(addMillis.subList(lines - window, lines));
+        Assert.assertTrue(last <= Math.max(first, 0.1) * maxGrowth,
+            "cart add p50 grew from " + first + "ms to " + last + "ms over " + lines + " lines");
+    }
+    
+    private static double medianMillis(List<?> millis) {
+        List<Long> nanos = new ArrayList<>();
+        for (Object value : millis) {
+            nanos.add((long) (((Number) value).doubleValue() * 1e6));
+        }
+        Collections.sort(nanos);
+        return StepTimings.percentile(nanos, 50) / 1e6;
+    }
+    
+    // Replaces the order history with arguments[0] generated orders in the old
+    // single-array format; the app splits it into buckets on first read
+    private static final String SEED_ORDER_HISTORY_SCRIPT =
+        "Object.keys(localStorage).forEach(function(key) {" +
+        "  if (key.indexOf('orderHistory') === 0) { localStorage.removeItem(key); }" +
+        "});" +
+        "var orders = new Array(arguments[0]);" +
+        "for (var i = 0; i < orders.length; i++) {" +
+        "  orders[i] = { orderNumber: 'ORD-' + (i + 1), date: '1/1/2024'," +
+        "    items: [{ name: 'Glazed Donut', price: 2.75, qty: 2, cost: 5.5 }], total: '6.05' };" +
+        "}" +
+        "localStorage.setItem('orderHistory', JSON.stringify(orders));";
+    
+    // Runs arguments[0] rounds of add-one-item, checkout and open-history;
+    // returns ms per checkout (through forced layout) and per history open
+    // (through the next paint)
+    private static final String MEASURE_HISTORY_SCRIPT =
+        "var rounds = arguments[0], done = arguments[arguments.length - 1];" +
+        "var result = { checkout: [], open: [] }, i = 0;" +
+        "function next() {" +
+        "  closeOrderHistory();" +
+        "  if (i++ === rounds) { done(result); return; }" +
+        "  quickAdd('Glazed Donut', 2.75);" +
+        "  var start = performance.now();" +
+        "  checkout();" +
+        "  document.body.offsetHeight;" +
+        "  result.checkout.push(performance.now() - start);" +
+        "  closeCheckoutModal();" +
+        "  start = performance.now();" +
+        "  showOrderHistory();" +
+        "  requestAnimationFrame(function() { setTimeout(function() {" +
+        "    result.open.push(performance.now() - start); next();" +
+        "  }, 0); });" +
+        "}" +
+        "next();";
+    
+    @Test(groups = "perf")
+    public void testOrderHistoryScaling() {
+        String[] sizes = System.getProperty("history.sizes", "100,10000").split(",");
+        int rounds = Integer.getInteger("history.rounds", 20);
+        double budgetMs = Double.parseDouble(System.getProperty("history.bench.budgetMs", "50"));
+        double maxGrowth = Double.parseDouble(System.getProperty("history.bench.maxGrowth", "3"));
         
-        // 9. Verify cart has items
-        Assert.assertFalse(findByTestId("cart-count").getText().equals("0 items"));
+        setupLoggedInSession();
+        DashboardPage dashboard = dashboardPage();
+        JavascriptExecutor js = (JavascriptExecutor) driver();
+        driver().manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
         
-        // 10. Checkout
-        findClickableByTestId("checkout-button").click();
-        Assert.assertTrue(findByTestId("checkout-modal").isDisplayed());
-        findClickableByTestId("close-checkout-modal").click();
+        double[] smallestMedians = null;
+        double[] largestMedians = null;
+        try {
+            for (String size : sizes) {
+                int orders = Integer.parseInt(size.trim());
+                js.executeScript(SEED_ORDER_HISTORY_SCRIPT, orders);
+                // Warm-up round pays for the one-off split into buckets
+                js.executeAsyncScript(MEASURE_HISTORY_SCRIPT, 1);
+                
+                Map<?, ?> result = (Map<?, ?>) js.executeAsyncScript(MEASURE_HISTORY_SCRIPT, rounds);
+                double[] medians = new double[2];
+                int step = 0;
+                for (String kind : Arrays.asList("checkout", "open")) {
+                    List<Long> sorted = latencies(result.get(kind), "history-" + kind, orders);
+                    double p50 = StepTimings.percentile(sorted, 50) / 1e6;
+                    double p95 = StepTimings.percentile(sorted, 95) / 1e6;
+                    medians[step++] = p50;
+                    Reporter.log(String.format("order history=%d %s p50=%.2fms p95=%.2fms", orders, kind, p50, p95), true);
+                    Assert.assertTrue(p95 <= budgetMs,
+                        "history " + kind + " p95 " + p95 + "ms over " + budgetMs + "ms budget at " + orders + " orders");
+                }
+                if (smallestMedians == null) {
+                    smallestMedians = medians;
+                }
+                largestMedians = medians;
+                
+                // Only the newest page is rendered
+                int newest = orders + rounds + 1;
+                dashboard.openOrderHistory();
+                DomSnapshot page = snapshot("order-" + newest, "order-" + (newest - 20));
+                Assert.assertTrue(page.get("order-" + newest).isVisible(), "Newest order should open first");
+                Assert.assertFalse(page.get("order-" + (newest - 20)).isPresent(), "History should be paginated");
+                dashboard.closeOrderHistory();
+            }
+        } finally {
+            driver().manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        }
         
-        // 11. Verify order in history
-        findClickableByTestId("profile-button").click();
-        findClickableByTestId("order-history-button").click();
-        Assert.assertTrue(findByTestId("order-1").isDisplayed());
+        // Checkout and history-open cost should not depend on how many orders exist
+        Assert.assertTrue(largestMedians[0] <= Math.max(smallestMedians[0], 1.0) * maxGrowth,
+            "checkout p50 grew from " + smallestMedians[0] + "ms to " + largestMedians[0] + "ms");
+        Assert.assertTrue(largestMedians[1] <= Math.max(smallestMedians[1], 1.0) * maxGrowth,
+            "history open p50 grew from " + smallestMedians[1] + "ms to " + largestMedians[1] + "ms");
+    }
+    
+    // arguments[0] rounds of kiosk use through the page's own buttons, numbered
+    // from arguments[1]: two quick adds, a removal, every tenth round a clear
+    // and re-add, a promo code (every fourth one invalid), checkout. Returns
+    // the cart size, which checkout leaves at 0.
+    private static final String SOAK_SCRIPT =
+        "var rounds = arguments[0], start = arguments[1];" +
+        "var codes = ['SWEET10', 'BAKER20', 'TREAT15', 'NOPE'];" +
+        "function click(testId) { document.querySelector(\"[data-testid='\" + testId + \"']\").click(); }" +
+        "for (var i = start; i < start + rounds; i++) {" +
+        "  click('quick-add-' + (i % 6 + 1));" +
+        "  click('quick-add-' + ((i + 1) % 6 + 1));" +
+        "  click('remove-item-1');" +
+        "  if (i % 10 === 9) { click('clear-cart-button'); click('quick-add-' + (i % 6 + 1)); }" +
+        "  document.getElementById('promo-code').value = codes[i % codes.length];" +
+        "  click('apply-promo-button');" +
+        "  click('checkout-button');" +
+        "  click('close-checkout-modal');" +
+        "}" +
+        "return cart.length;";
+    
+    // Loops the dashboard -Dsoak.iterations times and samples heap, DOM nodes,
+    // listeners and pending timers every -Dsoak.sampleEvery rounds (see
+    // LeakMonitor); fails when one keeps growing past -Dsoak.maxHeapGrowth,
+    // -Dsoak.maxNodeGrowth (fractions of the first sample) or -Dsoak.maxTimers.
+    // Samples go to soak-memory.csv.
+    @Test(groups = "perf")
+    public void testDashboardSoak() {
+        int iterations = Integer.getInteger("soak.iterations", 3000);
+        int sampleEvery = Integer.getInteger("soak.sampleEvery", 150);
+        double maxHeapGrowth = Double.parseDouble(System.getProperty("soak.maxHeapGrowth", "0.25"));
+        double maxNodeGrowth = Double.parseDouble(System.getProperty("soak.maxNodeGrowth", "0.10"));
+        long maxTimers = Long.getLong("soak.maxTimers", 5);
         
-        // Close modal by clicking outside or finding close button
-        driver.findElement(By.cssSelector("#order-history-modal .close-btn")).click();
+        setupLoggedInSession();
+        JavascriptExecutor js = (JavascriptExecutor) driver();
+        LeakMonitor monitor = new LeakMonitor(DriverPool.cdp(), js);
+        driver().manage().timeouts().scriptTimeout(Duration.ofMinutes(2));
         
-        // 12. Logout
-        findClickableByTestId("profile-button").click();
-        findClickableByTestId("logout-button").click();
+        try {
+            // Warm-up round: first-use allocations (menu index, order buckets) are not a leak
+            js.executeScript(SOAK_SCRIPT, sampleEvery, 0);
+            monitor.sample(sampleEvery);
+            for (int done = sampleEvery; done < iterations; done += sampleEvery) {
+                long cartSize = (Long) js.executeScript(SOAK_SCRIPT, sampleEvery, done);
+                Assert.assertEquals(cartSize, 0L, "checkout should empty the cart");
+                monitor.sample(done + sampleEvery);
+            }
+        } finally {
+            driver().manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        }
         
-        // 13. Verify back at login
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"));
+        monitor.writeReport(StepTimings.reportDir());
+        Reporter.log("soak " + iterations + " iterations: " + monitor.summary(), true);
+        List<String> leaks = monitor.leaks(maxHeapGrowth, maxNodeGrowth, maxTimers);
+        Assert.assertTrue(leaks.isEmpty(), "Memory kept growing: " + leaks);
+    }
+    
+    // Converts ms latencies from the page to sorted nanos and feeds them to the timing report
+    private static List<Long> latencies(Object millis, String step, int rows) {
+        List<Long> nanos = new ArrayList<>();
+        for (Object value : (List<?>) millis) {
+            long sample = (long) (((Number) value).doubleValue() * 1e6);
+            StepTimings.record(step, "rows=" + rows, sample);
+            nanos.add(sample);
+        }
+        Collections.sort(nanos);
+        return nanos;
     }
     
     // ==========================================
@@ -804,14 +1204,8 @@ public class BakeryE2ETest {
     // ==========================================
     
     private void setupLoggedInSession() {
+        // Seed storage directly; registration and login have their own tests
         String username = "testuser" + System.currentTimeMillis();
-        registerUser(username, username + "@test.com", "testpass123");
-        wait.until(ExpectedConditions.urlContains("login.html"));
-        
-        findByTestId("username-input").sendKeys(username);
-        findByTestId("password-input").sendKeys("testpass123");
-        findClickableByTestId("login-button").click();
-        
-        wait.until(ExpectedConditions.urlContains("dashboard.html"));
+        SessionSeeder.forUser(username).seed(driver(), baseUrl());
     }
 }
@@ -0,0 +1,119 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Common plumbing for the page objects. Locators are built once per class,
+// and each resolved WebElement is cached until the page is reloaded, so
+// repeated reads of the same element cost one wire call instead of a
+// lookup plus the call. A StaleElementReferenceException (the app re-rendered
+// the element, or the page reloaded) drops the cached element and the action
+// is retried once against a fresh lookup.
+public abstract class BasePage {
+
+    private static final Map<String, By> LOCATORS = new ConcurrentHashMap<>();
+
+    protected final WebDriver driver;
+    protected final WebDriverWait wait;
+    private final String baseUrl;
+    private final Map<By, WebElement> elements = new HashMap<>();
+
+    protected BasePage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+        this.driver = driver;
+        this.wait = wait;
+        this.baseUrl = baseUrl;
+    }
+
+    protected abstract String path();
+
+    // Shared by all pages and threads; indexed ids like quick-add-3 are built once too
+    protected static By testId(String testId) {
+        return LOCATORS.computeIfAbsent(testId, id -> By.cssSelector("[data-testid='" + id + "']"));
+    }
+
+    protected void load() {
+        driver.get(baseUrl + path());
+        forgetElements();
+    }
+
+    // Call after anything that replaces the document (a redirect, a reload)
+    public void forgetElements() {
+        elements.clear();
+    }
+
+    // ==========================================
+    // ELEMENT ACCESS
+    // ==========================================
+
+    protected WebElement element(By locator) {
+        WebElement element = elements.get(locator);
+        if (element == null) {
+            element = wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            elements.put(locator, element);
+        }
+        return element;
+    }
+
+    protected <T> T on(By locator, Function<WebElement, T> action) {
+        try {
+            return action.apply(element(locator));
+        } catch (StaleElementReferenceException e) {
+            elements.remove(locator);
+            return action.apply(element(locator));
+        }
+    }
+
+    protected void click(By locator) {
+        on(locator, element -> {
+            try {
+                element.click();
+            } catch (ElementNotInteractableException e) {
+                // Still animating in or covered; wait until it can take the click
+                wait.until(ExpectedConditions.elementToBeClickable(element)).click();
+            }
+            return null;
+        });
+    }
+
+    protected void type(By locator, CharSequence text) {
+        on(locator, element -> {
+            element.sendKeys(text);
+            return null;
+        });
+    }
+
+    protected void clearAndType(By locator, CharSequence text) {
+        on(locator, element -> {
+            element.clear();
+            element.sendKeys(text);
+            return null;
+        });
+    }
+
+    protected String text(By locator) {
+        return on(locator, WebElement::getText);
+    }
+
+    protected String value(By locator) {
+        return on(locator, element -> element.getAttribute("value"));
+    }
+
+    protected boolean displayed(By locator) {
+        return on(locator, WebElement::isDisplayed);
+    }
+
+    protected boolean hasClass(By locator, String className) {
+        return on(locator, element -> {
+            String classes = element.getAttribute("class");
+            return classes != null && (" " + classes + " ").contains(" " + className + " ");
+        });
+    }
+}
@@ -0,0 +1,30 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+// Wipes what one test leaves behind before the next one starts. When the
+// browser is already on the site's origin the storage is cleared in place,
+// without another page load; otherwise it first opens a landing page on that
+// origin (the script-free blank.html when SiteServer is serving the site).
+// Pending timers are cancelled too, so a delayed redirect from the previous
+// test (performLogin, performLogout...) cannot fire in the middle of the next.
+public final class BrowserReset {
+
+    static final String BLANK_PAGE = "blank.html";
+
+    private static final String RESET_SCRIPT =
+        "var id = setTimeout(function() {}, 0);" +
+        "while (id > 0) { clearTimeout(id); clearInterval(id); id--; }" +
+        "localStorage.clear();" +
+        "sessionStorage.clear();";
+
+    private BrowserReset() {
+    }
+
+    public static void reset(WebDriver driver, String baseUrl, String landingPage) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(baseUrl)) {
+            driver.get(baseUrl + landingPage);
+        }
+        ((JavascriptExecutor) driver).executeScript(RESET_SCRIPT);
+    }
+}
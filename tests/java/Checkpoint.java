@@ -0,0 +1,13 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// The fixture checkpoint a test starts from, e.g. @Checkpoint("cart-with-two-items");
+// built or restored by Checkpoints before the test body runs
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Checkpoint {
+
+    String value();
+}
@@ -0,0 +1,139 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Named starting states shared by the dashboard tests. The first test that
+// asks for a checkpoint builds it through the UI, on top of its parent
+// checkpoint, and then captures localStorage, sessionStorage and the page's
+// cart, promoApplied and promoDiscount (plus what the promo field shows).
+// Every later test gets the capture back: storage is written, the dashboard
+// loaded once, and the cart re-rendered from `cart` by updateCartDisplay().
+// Captures are kept for the JVM and shared by all workers; storage is
+// per origin, so they restore onto any worker's server. With -Dimpact.record
+// a restore also credits the test with the units its checkpoint ran when it
+// was built, so a change to that code still selects the test.
+// -Dcheckpoints=rebuild builds every checkpoint through the UI every time.
+public final class Checkpoints {
+
+    static final boolean CACHED = !"rebuild".equalsIgnoreCase(System.getProperty("checkpoints", "cache"));
+
+    private static final String CAPTURE_SCRIPT =
+        "function dump(storage) {" +
+        "  var items = {};" +
+        "  for (var i = 0; i < storage.length; i++) { var key = storage.key(i); items[key] = storage.getItem(key); }" +
+        "  return items;" +
+        "}" +
+        "var message = document.getElementById('promo-message');" +
+        "return { localStorage: dump(localStorage), sessionStorage: dump(sessionStorage), page: {" +
+        "  cart: cart, promoApplied: promoApplied, promoDiscount: promoDiscount," +
+        "  promoCode: document.getElementById('promo-code').value," +
+        "  promoMessage: message.innerText, promoMessageClass: message.className" +
+        "} };";
+
+    private static final String RESTORE_STORAGE_SCRIPT =
+        "var local = arguments[0], session = arguments[1];" +
+        "localStorage.clear();" +
+        "sessionStorage.clear();" +
+        "Object.keys(local).forEach(function(key) { localStorage.setItem(key, local[key]); });" +
+        "Object.keys(session).forEach(function(key) { sessionStorage.setItem(key, session[key]); });";
+
+    private static final String RESTORE_PAGE_SCRIPT =
+        "var s = arguments[0];" +
+        "cart = s.cart;" +
+        "promoApplied = s.promoApplied;" +
+        "promoDiscount = s.promoDiscount;" +
+        "updateCartDisplay();" +
+        "document.getElementById('promo-code').value = s.promoCode;" +
+        "var message = document.getElementById('promo-message');" +
+        "message.innerText = s.promoMessage;" +
+        "message.className = s.promoMessageClass;";
+
+    private static final Map<String, Definition> DEFINITIONS = new LinkedHashMap<>();
+    private static final Map<String, Map<String, Object>> CAPTURES = new ConcurrentHashMap<>();
+    private static final Map<String, Set<String>> UNITS = new ConcurrentHashMap<>();
+
+    static {
+        define("logged-in", null, (driver, wait, baseUrl) ->
+            SessionSeeder.forUser("checkpointuser").seed(driver, baseUrl));
+        define("cart-with-two-items", "logged-in", (driver, wait, baseUrl) -> {
+            DashboardPage dashboard = new DashboardPage(driver, wait, baseUrl);
+            dashboard.quickAdd(1);
+            dashboard.quickAdd(2);
+        });
+        define("promo-SWEET10-applied", "cart-with-two-items", (driver, wait, baseUrl) ->
+            new DashboardPage(driver, wait, baseUrl).applyPromo("SWEET10"));
+    }
+
+    private Checkpoints() {
+    }
+
+    private static void define(String name, String parent, Step step) {
+        DEFINITIONS.put(name, new Definition(parent, step));
+    }
+
+    // Leaves the browser on the dashboard in the checkpoint's state
+    public static void startFrom(String name, WebDriver driver, WebDriverWait wait, String baseUrl) {
+        Definition definition = DEFINITIONS.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown checkpoint '" + name + "', known: " + DEFINITIONS.keySet());
+        }
+        ImpactRecorder recorder = ImpactRecorder.current();
+        Map<String, Object> capture = CACHED ? CAPTURES.get(name) : null;
+        if (capture != null) {
+            restore(capture, driver, baseUrl);
+            Set<String> units = UNITS.get(name);
+            if (recorder != null && units != null) {
+                recorder.addUnits(units);
+            }
+            return;
+        }
+        if (definition.parent != null) {
+            startFrom(definition.parent, driver, wait, baseUrl);
+        }
+        definition.step.build(driver, wait, baseUrl);
+        if (CACHED) {
+            // Two workers may build the same checkpoint at once; either capture will do
+            if (recorder != null) {
+                UNITS.putIfAbsent(name, recorder.unitsSoFar());
+            }
+            CAPTURES.putIfAbsent(name, capture(driver));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> capture(WebDriver driver) {
+        return (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+    }
+
+    private static void restore(Map<String, Object> capture, WebDriver driver, String baseUrl) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(baseUrl)) {
+            driver.get(baseUrl + "login.html");
+        }
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        js.executeScript(RESTORE_STORAGE_SCRIPT, capture.get("localStorage"), capture.get("sessionStorage"));
+        driver.get(baseUrl + "dashboard.html");
+        js.executeScript(RESTORE_PAGE_SCRIPT, capture.get("page"));
+    }
+
+    private interface Step {
+
+        void build(WebDriver driver, WebDriverWait wait, String baseUrl);
+    }
+
+    private static final class Definition {
+
+        final String parent;
+        final Step step;
+
+        Definition(String parent, Step step) {
+            this.parent = parent;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Select;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+public class DashboardPage extends BasePage {
+
+    private static final By SEARCH_INPUT = testId("search-input");
+    private static final By SEARCH_CLEAR = testId("search-clear");
+    private static final By ITEM_SELECT = testId("item-select");
+    private static final By QUANTITY_INPUT = testId("quantity-input");
+    private static final By QTY_INCREASE = testId("qty-increase");
+    private static final By QTY_DECREASE = testId("qty-decrease");
+    private static final By ADD_TO_CART = testId("add-to-cart-button");
+    private static final By CART_COUNT = testId("cart-count");
+    private static final By TOTAL_PRICE = testId("total-price");
+    private static final By PROMO_INPUT = testId("promo-input");
+    private static final By APPLY_PROMO = testId("apply-promo-button");
+    private static final By PROMO_MESSAGE = testId("promo-message");
+    private static final By CHECKOUT = testId("checkout-button");
+    private static final By CHECKOUT_MODAL = testId("checkout-modal");
+    private static final By CLOSE_CHECKOUT = testId("close-checkout-modal");
+    private static final By PROFILE_BUTTON = testId("profile-button");
+    private static final By ORDER_HISTORY_BUTTON = testId("order-history-button");
+    private static final By OLDER_ORDERS = testId("older-orders-button");
+    private static final By CLOSE_ORDER_HISTORY = By.cssSelector("#order-history-modal .close-btn");
+    private static final By LOGOUT_BUTTON = testId("logout-button");
+
+    public DashboardPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+        super(driver, wait, baseUrl);
+    }
+
+    @Override
+    protected String path() {
+        return "dashboard.html";
+    }
+
+    public DashboardPage open() {
+        load();
+        return this;
+    }
+
+    // ==========================================
+    // MENU
+    // ==========================================
+
+    public void search(String term) {
+        type(SEARCH_INPUT, term);
+    }
+
+    public void clearSearch() {
+        click(SEARCH_CLEAR);
+    }
+
+    public boolean isMenuItemHidden(int row) {
+        return hasClass(testId("menu-item-" + row), "hidden");
+    }
+
+    public void quickAdd(int row) {
+        click(testId("quick-add-" + row));
+    }
+
+    // ==========================================
+    // CUSTOM ORDER
+    // ==========================================
+
+    public void selectItem(String visibleText) {
+        on(ITEM_SELECT, element -> {
+            new Select(element).selectByVisibleText(visibleText);
+            return null;
+        });
+    }
+
+    public String quantity() {
+        return value(QUANTITY_INPUT);
+    }
+
+    public void setQuantity(int quantity) {
+        clearAndType(QUANTITY_INPUT, String.valueOf(quantity));
+    }
+
+    public void increaseQuantity() {
+        click(QTY_INCREASE);
+    }
+
+    public void decreaseQuantity() {
+        click(QTY_DECREASE);
+    }
+
+    public void addToCart() {
+        click(ADD_TO_CART);
+    }
+
+    // ==========================================
+    // CART & CHECKOUT
+    // ==========================================
+
+    public String cartCount() {
+        return text(CART_COUNT);
+    }
+
+    public String totalPrice() {
+        return text(TOTAL_PRICE);
+    }
+
+    public void applyPromo(String code) {
+        clearAndType(PROMO_INPUT, code);
+        click(APPLY_PROMO);
+    }
+
+    public String promoMessage() {
+        return text(PROMO_MESSAGE);
+    }
+
+    public void checkout() {
+        click(CHECKOUT);
+    }
+
+    public boolean isCheckoutModalDisplayed() {
+        return displayed(CHECKOUT_MODAL);
+    }
+
+    public void closeCheckoutModal() {
+        click(CLOSE_CHECKOUT);
+    }
+
+    // ==========================================
+    // PROFILE MENU
+    // ==========================================
+
+    public void openOrderHistory() {
+        click(PROFILE_BUTTON);
+        click(ORDER_HISTORY_BUTTON);
+    }
+
+    public boolean isOrderDisplayed(int number) {
+        return displayed(testId("order-" + number));
+    }
+
+    // The history opens on the newest page; each call appends the next older one
+    public void showOlderOrders() {
+        click(OLDER_ORDERS);
+    }
+
+    public void closeOrderHistory() {
+        click(CLOSE_ORDER_HISTORY);
+    }
+
+    // performLogout() redirects to the login page after a delay
+    public void logout() {
+        click(PROFILE_BUTTON);
+        click(LOGOUT_BUTTON);
+    }
+}
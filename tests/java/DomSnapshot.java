@@ -0,0 +1,108 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads visibility, class list and text for a set of data-testid elements in
+// a single executeScript call, so checking N menu or cart rows costs one
+// WebDriver round-trip instead of N.
+public final class DomSnapshot {
+
+    private static final String SNAPSHOT_SCRIPT =
+        "var result = {};" +
+        "arguments[0].forEach(function(id) {" +
+        "  var el = document.querySelector(\"[data-testid='\" + id + \"']\");" +
+        "  if (!el) { result[id] = null; return; }" +
+        "  var style = window.getComputedStyle(el);" +
+        "  result[id] = {" +
+        "    visible: el.getClientRects().length > 0 && style.visibility !== 'hidden' && style.display !== 'none'," +
+        "    classes: Array.prototype.slice.call(el.classList)," +
+        "    text: el.innerText" +
+        "  };" +
+        "});" +
+        "return result;";
+
+    private final Map<String, ElementState> elements;
+
+    private DomSnapshot(Map<String, ElementState> elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static DomSnapshot of(WebDriver driver, String... testIds) {
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver)
+            .executeScript(SNAPSHOT_SCRIPT, Arrays.asList(testIds));
+
+        Map<String, ElementState> elements = new LinkedHashMap<>();
+        for (String testId : testIds) {
+            Map<String, Object> state = (Map<String, Object>) raw.get(testId);
+            elements.put(testId, state == null
+                ? ElementState.MISSING
+                : new ElementState(true,
+                    Boolean.TRUE.equals(state.get("visible")),
+                    new HashSet<>((List<String>) state.get("classes")),
+                    (String) state.get("text")));
+        }
+        return new DomSnapshot(elements);
+    }
+
+    public ElementState get(String testId) {
+        ElementState state = elements.get(testId);
+        if (state == null) {
+            throw new IllegalArgumentException("'" + testId + "' was not part of this snapshot");
+        }
+        return state;
+    }
+
+    public Map<String, ElementState> asMap() {
+        return Collections.unmodifiableMap(elements);
+    }
+
+    public static final class ElementState {
+
+        static final ElementState MISSING = new ElementState(false, false, Collections.emptySet(), null);
+
+        private final boolean present;
+        private final boolean visible;
+        private final Set<String> classes;
+        private final String text;
+
+        ElementState(boolean present, boolean visible, Set<String> classes, String text) {
+            this.present = present;
+            this.visible = visible;
+            this.classes = Collections.unmodifiableSet(classes);
+            this.text = text;
+        }
+
+        public boolean isPresent() {
+            return present;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public boolean hasClass(String className) {
+            return classes.contains(className);
+        }
+
+        public Set<String> getClasses() {
+            return classes;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return present ? "visible=" + visible + " classes=" + classes + " text=" + text : "missing";
+        }
+    }
+}
@@ -0,0 +1,254 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+// Hands every TestNG worker thread its own browser, so the suite can run with
+// parallel="tests" or parallel="methods". Browsers are created lazily on first
+// use and reused by later tests on the same thread until shutdown(). Each
+// worker also gets its own SiteServer origin unless -Dbase.url points the
+// suite at an externally hosted copy of the site.
+// -Dbrowser.isolation picks what a worker's browser is:
+//   context - a session on the one SharedChrome, and every test starts in a
+//             brand new browser context with empty storage (default)
+//   profile - a whole Chrome per worker with its own profile; storage and
+//             timers are wiped between tests by BrowserReset
+public final class DriverPool {
+
+    private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final String EXTERNAL_BASE_URL = System.getProperty("base.url");
+    static final boolean CONTEXT_ISOLATION =
+        !"profile".equalsIgnoreCase(System.getProperty("browser.isolation", "context"));
+
+    private static final ThreadLocal<Worker> CURRENT = new ThreadLocal<>();
+    private static final Queue<Worker> WORKERS = new ConcurrentLinkedQueue<>();
+
+    private DriverPool() {
+    }
+
+    public static WebDriver driver() {
+        return worker().driver;
+    }
+
+    public static WebDriverWait waitFor() {
+        return worker().wait;
+    }
+
+    public static String baseUrl() {
+        return worker().baseUrl;
+    }
+
+    // The calling thread's browser if it already has one; never starts a new one
+    static WebDriver existingDriver() {
+        Worker worker = CURRENT.get();
+        return worker == null || worker.closed ? null : worker.driver;
+    }
+
+    // CDP for the calling thread's current tab
+    static HasCdp cdp() {
+        return worker().chrome;
+    }
+
+    // Gets rid of the storage and pending timers left by the previous test on
+    // this worker. A fresh context is left on about:blank: every test and
+    // seeder loads the page it needs, so a landing page would be a wasted load.
+    public static void resetBrowser() {
+        Worker worker = worker();
+        if (worker.shared == null) {
+            String landingPage = worker.server != null ? BrowserReset.BLANK_PAGE : "login.html";
+            BrowserReset.reset(worker.driver, worker.baseUrl, landingPage);
+        } else {
+            if (worker.contextUsed) {
+                worker.openContext();
+            }
+            worker.contextUsed = true;
+        }
+        if (FailureArtifactListener.ENABLED) {
+            worker.discardConsoleLog();
+        }
+    }
+
+    public static void shutdown() {
+        Worker worker;
+        while ((worker = WORKERS.poll()) != null) {
+            worker.close();
+        }
+        CURRENT.remove();
+        SharedChrome.shutdown();
+    }
+
+    private static Worker worker() {
+        Worker worker = CURRENT.get();
+        if (worker == null || worker.closed) {
+            worker = new Worker();
+            CURRENT.set(worker);
+            WORKERS.add(worker);
+        }
+        return worker;
+    }
+
+    // ==========================================
+    // PER-THREAD BROWSER
+    // ==========================================
+
+    private static final class Worker {
+
+        private final SharedChrome shared;
+        private final Path profileDir;
+        private final ChromeDriver chrome;
+        private final ImpactRecorder impactRecorder;
+        private final WebDriver driver;
+        private final WebDriverWait wait;
+        private final SiteServer server;
+        private final String baseUrl;
+        private String contextId;
+        private boolean contextUsed;
+        private volatile boolean closed;
+
+        Worker() {
+            if (EXTERNAL_BASE_URL != null) {
+                server = null;
+                baseUrl = EXTERNAL_BASE_URL.endsWith("/") ? EXTERNAL_BASE_URL : EXTERNAL_BASE_URL + "/";
+            } else {
+                server = SiteServer.start();
+                baseUrl = server.baseUrl();
+            }
+
+            if (CONTEXT_ISOLATION) {
+                shared = SharedChrome.get();
+                profileDir = null;
+                chrome = attach(shared);
+                openContext();
+            } else {
+                shared = null;
+                profileDir = createProfile();
+                chrome = launch(profileDir);
+            }
+
+            List<WebDriverListener> listeners = new ArrayList<>();
+            if (StepTimings.ENABLED) {
+                listeners.add(new TimingListener());
+            }
+            if (PerfMetrics.ENABLED) {
+                listeners.add(new PerfMetricsListener(chrome));
+            }
+            impactRecorder = TestImpact.RECORDING ? new ImpactRecorder(chrome) : null;
+            if (impactRecorder != null) {
+                listeners.add(impactRecorder);
+            }
+            driver = listeners.isEmpty()
+                ? chrome
+                : new EventFiringDecorator<WebDriver>(listeners.toArray(new WebDriverListener[0])).decorate(chrome);
+            wait = StepTimings.ENABLED ? new TimedWait(driver, WAIT_TIMEOUT) : new EventWait(driver, WAIT_TIMEOUT);
+        }
+
+        // Moves this worker to a new browser context with one blank tab and
+        // drops the previous one. Page scripts and coverage are per tab, so
+        // they are installed again.
+        void openContext() {
+            String previous = contextId;
+            contextId = DriverPool.openContext(shared, chrome);
+            if (impactRecorder != null) {
+                impactRecorder.startCoverage();
+            }
+            contextUsed = false;
+            if (previous != null) {
+                shared.disposeContext(previous);
+            }
+        }
+
+        // The session's console log keeps growing across tests and contexts;
+        // reading it empties it, so a failure's console.log starts at its own test
+        void discardConsoleLog() {
+            try {
+                chrome.manage().logs().get(LogType.BROWSER);
+            } catch (WebDriverException e) {
+                // No console log to read; FailureArtifactListener notes that if the test fails
+            }
+        }
+
+        void close() {
+            closed = true;
+            try {
+                if (shared != null && contextId != null) {
+                    shared.disposeContext(contextId);
+                }
+                // Only detaches when attached to the shared browser
+                driver.quit();
+            } finally {
+                if (server != null) {
+                    server.stop();
+                }
+                if (profileDir != null) {
+                    deleteProfile(profileDir);
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // BROWSER LAUNCH (also used by LoadDriver and SharedChrome)
+    // ==========================================
+
+    // A session of its own on the shared browser; openContext() then gives it a tab of its own
+    static ChromeDriver attach(SharedChrome shared) {
+        return new ChromeDriver(LaunchProfile.current().attachOptions(shared.debuggerAddress()));
+    }
+
+    // Switches an attached session to a blank tab in a brand new browser
+    // context, set up like a freshly launched browser; returns the context id
+    static String openContext(SharedChrome shared, ChromeDriver chrome) {
+        String contextId = shared.createContext();
+        chrome.switchTo().window(shared.createPage(contextId));
+        LaunchProfile.current().configureWindow(chrome);
+        VirtualClock.install(chrome);
+        PerfMetrics.install(chrome);
+        return contextId;
+    }
+
+    // A private profile keeps localStorage from leaking between browsers
+    static Path createProfile() {
+        try {
+            return Files.createTempDirectory("bakery-profile-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create browser profile directory", e);
+        }
+    }
+
+    static ChromeDriver launch(Path profileDir) {
+        LaunchProfile launchProfile = LaunchProfile.current();
+        ChromeOptions options = launchProfile.chromeOptions();
+        options.addArguments("--user-data-dir=" + profileDir.toAbsolutePath());
+
+        ChromeDriver chrome = new ChromeDriver(options);
+        launchProfile.configureWindow(chrome);
+        VirtualClock.install(chrome);
+        PerfMetrics.install(chrome);
+        return chrome;
+    }
+
+    static void deleteProfile(Path profileDir) {
+        try (Stream<Path> paths = Files.walk(profileDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Chrome may still hold files briefly after quit; the OS temp cleaner will get them
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// WebDriverWait that re-checks its condition as soon as the page changes
+// instead of on a fixed 500 ms poll. Between checks it parks in an async
+// script that returns on the next DOM mutation (tracked by a MutationObserver
+// installed once per document) or when the page is being navigated away,
+// with a short fallback slice for changes the DOM can't see (the URL, for
+// instance). Existing ExpectedConditions work unchanged.
+// -Dwait.mode=poll restores plain WebDriverWait polling.
+public class EventWait extends WebDriverWait {
+
+    static final boolean EVENT_DRIVEN = !"poll".equalsIgnoreCase(System.getProperty("wait.mode", "event"));
+
+    private static final long SLICE_MS = 250;
+
+    // Resolves with the document's mutation count once it differs from
+    // arguments[0], the page starts unloading, or arguments[1] ms pass
+    private static final String AWAIT_CHANGE_SCRIPT =
+        "var seen = arguments[0], sliceMs = arguments[1], done = arguments[arguments.length - 1];" +
+        "var state = window.__eventWait;" +
+        "if (!state) {" +
+        "  state = window.__eventWait = { count: 0, listeners: [] };" +
+        "  var notify = function() {" +
+        "    state.count++;" +
+        "    var listeners = state.listeners; state.listeners = [];" +
+        "    listeners.forEach(function(listener) { listener(); });" +
+        "  };" +
+        "  new MutationObserver(notify).observe(document," +
+        "    { attributes: true, childList: true, subtree: true, characterData: true });" +
+        "  window.addEventListener('pagehide', notify);" +
+        "  window.addEventListener('beforeunload', notify);" +
+        "}" +
+        "if (seen !== null && state.count !== seen) { done(state.count); return; }" +
+        "var finished = false;" +
+        "var finish = function() { if (!finished) { finished = true; done(state.count); } };" +
+        "state.listeners.push(finish);" +
+        "setTimeout(finish, sliceMs);";
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    public EventWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        if (!EVENT_DRIVEN || !(driver instanceof JavascriptExecutor)) {
+            return super.until(isTrue);
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Long seenMutations = null;
+        RuntimeException lastException = null;
+        while (true) {
+            try {
+                V value = isTrue.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    return value;
+                }
+            } catch (NotFoundException e) {
+                lastException = e;
+            }
+
+            long remainingMs = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMs <= 0) {
+                String message = "waiting for " + isTrue + " (tried for " + timeout.getSeconds()
+                    + " second(s), woken by page mutations)";
+                throw timeoutException(message, lastException);
+            }
+            seenMutations = awaitChange(seenMutations, Math.min(SLICE_MS, remainingMs));
+        }
+    }
+
+    private Long awaitChange(Long seenMutations, long sliceMs) {
+        try {
+            Object count = ((JavascriptExecutor) driver).executeAsyncScript(AWAIT_CHANGE_SCRIPT, seenMutations, sliceMs);
+            return count instanceof Number ? ((Number) count).longValue() : null;
+        } catch (NoSuchSessionException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            // The document went away mid-wait (navigation, reload); check again on the new one
+            return null;
+        }
+    }
+}
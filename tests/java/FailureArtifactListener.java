@@ -0,0 +1,122 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// On a failed test, captures what the browser was showing: a screenshot, the
+// page's URL and outerHTML, localStorage and sessionStorage, and the console
+// log since the test began (kept through goog:loggingPrefs, see LaunchProfile;
+// DriverPool.resetBrowser() empties it), next to the failure itself. Only the capture runs on the test thread; FailureArtifactWriter
+// zips and stores it in the background. A test that never opened a browser
+// only gets failure.txt. -Dartifacts=off turns it off.
+public class FailureArtifactListener implements IInvokedMethodListener, ISuiteListener {
+
+    static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("artifacts", "on"));
+
+    private static final String PAGE_STATE_SCRIPT =
+        "function dump(storage) {" +
+        "  var items = {};" +
+        "  for (var i = 0; i < storage.length; i++) { var key = storage.key(i); items[key] = storage.getItem(key); }" +
+        "  return items;" +
+        "}" +
+        "return { url: location.href, html: document.documentElement.outerHTML," +
+        "         localStorage: dump(localStorage), sessionStorage: dump(sessionStorage) };";
+
+    private static final Json JSON = new Json();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!ENABLED || !method.isTestMethod() || testResult.getStatus() != ITestResult.FAILURE) {
+            return;
+        }
+        String testName = method.getTestMethod().getMethodName();
+        StringBuilder failure = new StringBuilder(describe(testResult));
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        WebDriver driver = DriverPool.existingDriver();
+        if (driver != null) {
+            capture(driver, entries, failure);
+        }
+        entries.put("failure.txt", failure.toString().getBytes(StandardCharsets.UTF_8));
+
+        String fileName = String.format("%d-%s%s-%d.zip", System.currentTimeMillis(),
+            ShardPlanner.SHARDED ? "shard" + ShardPlanner.INDEX + "-" : "", testName, SEQUENCE.incrementAndGet());
+        FailureArtifactWriter.submit(fileName, entries);
+        testResult.setAttribute("failureArtifacts", FailureArtifactWriter.DIR.resolve(fileName).toString());
+        System.out.println("[failure-artifacts] " + testName + " -> " + FailureArtifactWriter.DIR.resolve(fileName));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (ENABLED) {
+            FailureArtifactWriter.flush(30);
+        }
+    }
+
+    // Each part on its own, so a browser that can't do one still gives the rest
+    @SuppressWarnings("unchecked")
+    private static void capture(WebDriver driver, Map<String, byte[]> entries, StringBuilder failure) {
+        try {
+            entries.put("screenshot.png", ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+        } catch (WebDriverException | ClassCastException e) {
+            failure.append("\nscreenshot unavailable: ").append(firstLine(e));
+        }
+        try {
+            Map<String, Object> page = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(PAGE_STATE_SCRIPT);
+            entries.put("page.html", ("<!-- " + page.get("url") + " -->\n" + page.get("html")).getBytes(StandardCharsets.UTF_8));
+            Map<String, Object> storage = new LinkedHashMap<>();
+            storage.put("url", page.get("url"));
+            storage.put("localStorage", page.get("localStorage"));
+            storage.put("sessionStorage", page.get("sessionStorage"));
+            entries.put("storage.json", JSON.toJson(storage).getBytes(StandardCharsets.UTF_8));
+        } catch (WebDriverException e) {
+            failure.append("\npage state unavailable: ").append(firstLine(e));
+        }
+        try {
+            StringBuilder console = new StringBuilder();
+            for (LogEntry entry : driver.manage().logs().get(LogType.BROWSER)) {
+                console.append(Instant.ofEpochMilli(entry.getTimestamp())).append(' ')
+                    .append(entry.getLevel()).append(' ').append(entry.getMessage()).append('\n');
+            }
+            entries.put("console.log", console.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (WebDriverException e) {
+            failure.append("\nconsole log unavailable: ").append(firstLine(e));
+        }
+    }
+
+    private static String describe(ITestResult testResult) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println(testResult.getTestClass().getName() + "." + testResult.getMethod().getMethodName()
+            + (testResult.getParameters().length > 0 ? Arrays.toString(testResult.getParameters()) : ""));
+        out.println("failed after " + (testResult.getEndMillis() - testResult.getStartMillis()) + " ms");
+        if (testResult.getThrowable() != null) {
+            testResult.getThrowable().printStackTrace(out);
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    private static String firstLine(Exception e) {
+        return String.valueOf(e.getMessage()).split("\n")[0];
+    }
+}
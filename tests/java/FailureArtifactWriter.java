@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes what FailureArtifactListener captured on a single background thread,
+// one zip per failed test, so a failing test only pays for the capture. The
+// directory (-Dartifacts.dir, default target/failure-artifacts, shared by all
+// shards of a run) is a ring buffer: after every write the oldest zips are
+// deleted until at most -Dartifacts.maxFiles remain within -Dartifacts.maxMb.
+// When failures come faster than the disk takes them the queue holds a few
+// and then drops the oldest captures rather than blocking the tests.
+final class FailureArtifactWriter {
+
+    static final Path DIR = Paths.get(System.getProperty("artifacts.dir", "target/failure-artifacts"));
+    private static final int MAX_FILES = Integer.getInteger("artifacts.maxFiles", 100);
+    private static final long MAX_BYTES = Long.getLong("artifacts.maxMb", 200) * 1024 * 1024;
+    private static final int QUEUE_SIZE = 16;
+
+    // Already compressed, so stored as is
+    private static final List<String> STORED = List.of(".png");
+
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_SIZE),
+        runnable -> {
+            Thread thread = new Thread(runnable, "failure-artifact-writer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        },
+        new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    private FailureArtifactWriter() {
+    }
+
+    // Entries are written in order; the file appears under its final name only once complete
+    static void submit(String fileName, Map<String, byte[]> entries) {
+        Map<String, byte[]> copy = new LinkedHashMap<>(entries);
+        WRITER.execute(() -> write(fileName, copy));
+    }
+
+    // Waits for queued captures at the end of the suite
+    static void flush(long timeoutSeconds) {
+        try {
+            WRITER.submit(() -> { }).get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Whatever is still queued is lost; the test results themselves are unaffected
+        }
+    }
+
+    private static void write(String fileName, Map<String, byte[]> entries) {
+        try {
+            Files.createDirectories(DIR);
+            Path partial = DIR.resolve(fileName + ".part");
+            try (OutputStream file = Files.newOutputStream(partial);
+                 ZipOutputStream zip = new ZipOutputStream(file, StandardCharsets.UTF_8)) {
+                zip.setLevel(Deflater.BEST_SPEED);
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    zip.putNextEntry(zipEntry(entry.getKey(), entry.getValue()));
+                    zip.write(entry.getValue());
+                    zip.closeEntry();
+                }
+            }
+            Files.move(partial, DIR.resolve(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            evict();
+        } catch (IOException e) {
+            System.err.println("[failure-artifacts] could not write " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private static ZipEntry zipEntry(String name, byte[] content) {
+        ZipEntry entry = new ZipEntry(name);
+        if (STORED.stream().anyMatch(name::endsWith)) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        return entry;
+    }
+
+    // Newest first; everything past the file or byte limit goes
+    private static void evict() throws IOException {
+        List<Path> newestFirst;
+        try (Stream<Path> files = Files.list(DIR)) {
+            newestFirst = files
+                .filter(path -> path.getFileName().toString().endsWith(".zip"))
+                .sorted(Comparator.comparing(FailureArtifactWriter::lastModified).reversed())
+                .collect(Collectors.toList());
+        }
+        long used = 0;
+        for (int i = 0; i < newestFirst.size(); i++) {
+            Path file = newestFirst.get(i);
+            try {
+                used += Files.size(file);
+                if (i >= MAX_FILES || used > MAX_BYTES) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                // Another shard evicted it first
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
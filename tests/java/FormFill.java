@@ -0,0 +1,68 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sets every field of a form in a single executeScript call instead of one
+// sendKeys per field (one wire call per field, one synthesised key event per
+// character). Each value goes through the element's native setter, so the
+// page sees it like typed input, followed by bubbling input and change events;
+// Boolean values check or uncheck checkboxes. The page's listeners see one
+// input event with the whole value rather than one per keystroke, so tests
+// about typing itself (the password strength bar) keep using sendKeys.
+public final class FormFill {
+
+    private static final String FILL_FORM_SCRIPT =
+        "var missing = [];" +
+        "arguments[0].forEach(function(field) {" +
+        "  var el = document.querySelector(\"[data-testid='\" + field[0] + \"']\");" +
+        "  if (!el) { missing.push(field[0]); return; }" +
+        "  var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype" +
+        "    : el instanceof HTMLSelectElement ? HTMLSelectElement.prototype : HTMLInputElement.prototype;" +
+        "  if (typeof field[1] === 'boolean') {" +
+        "    if (el.checked === field[1]) { return; }" +
+        "    Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'checked').set.call(el, field[1]);" +
+        "  } else {" +
+        "    Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, field[1]);" +
+        "  }" +
+        "  el.dispatchEvent(new Event('input', { bubbles: true }));" +
+        "  el.dispatchEvent(new Event('change', { bubbles: true }));" +
+        "});" +
+        "return missing;";
+
+    private FormFill() {
+    }
+
+    // Fields are filled in the map's iteration order; a testId that is not on
+    // the page fails the call after the others were filled
+    @SuppressWarnings("unchecked")
+    public static void fill(WebDriver driver, Map<String, ?> values) {
+        List<List<Object>> fields = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (!(value instanceof Boolean)) {
+                value = String.valueOf(value);
+            }
+            fields.add(List.of(entry.getKey(), value));
+        }
+        List<String> missing = (List<String>) ((JavascriptExecutor) driver).executeScript(FILL_FORM_SCRIPT, fields);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("No element for " + missing + " on " + driver.getCurrentUrl());
+        }
+    }
+
+    // Keeps the order of the pairs: fields("reg-username-input", "bob", "terms-checkbox", true)
+    public static Map<String, Object> fields(Object... testIdValuePairs) {
+        if (testIdValuePairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected testId/value pairs, got " + testIdValuePairs.length + " arguments");
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < testIdValuePairs.length; i += 2) {
+            fields.put((String) testIdValuePairs[i], testIdValuePairs[i + 1]);
+        }
+        return fields;
+    }
+}
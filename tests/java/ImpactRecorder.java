@@ -0,0 +1,124 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Records which script.js functions and which pages one browser ran during the
+// current test, for TestImpact. V8 precise coverage with call counts is
+// switched on when the browser starts; coverage is taken before every
+// driver.get as well as at the end of the test, so functions that ran on a
+// page the test then navigated away from are not lost.
+public class ImpactRecorder implements WebDriverListener {
+
+    private static final ThreadLocal<ImpactRecorder> CURRENT = new ThreadLocal<>();
+
+    private final ChromeDriver chrome;
+    private final Set<String> units = new TreeSet<>();
+    private final Map<String, String[]> unitsByFile = new HashMap<>();
+
+    public ImpactRecorder(ChromeDriver chrome) {
+        this.chrome = chrome;
+        startCoverage();
+        CURRENT.set(this);
+    }
+
+    // Coverage belongs to a tab; DriverPool calls this again after moving to a new browser context
+    public void startCoverage() {
+        chrome.executeCdpCommand("Profiler.enable", Map.of());
+        chrome.executeCdpCommand("Profiler.startPreciseCoverage", Map.of("callCount", true, "detailed", false));
+    }
+
+    // The recorder of the browser driven by the calling worker thread, if one has started
+    public static ImpactRecorder current() {
+        return CURRENT.get();
+    }
+
+    // Forgets everything run before the test started; taking coverage resets the call counts
+    public void startTest() {
+        takeCoverage();
+        units.clear();
+    }
+
+    public Set<String> finishTest() {
+        return unitsSoFar();
+    }
+
+    // What the current test has run up to now
+    public Set<String> unitsSoFar() {
+        takeCoverage();
+        addPage(chrome.getCurrentUrl());
+        return new TreeSet<>(units);
+    }
+
+    // Counts units run on the test's behalf without running them here, e.g. by a restored checkpoint
+    public void addUnits(Set<String> ranElsewhere) {
+        units.addAll(ranElsewhere);
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        takeCoverage();
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url) {
+        addPage(url);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void takeCoverage() {
+        Map<String, Object> coverage;
+        try {
+            coverage = chrome.executeCdpCommand("Profiler.takePreciseCoverage", Map.of());
+        } catch (WebDriverException e) {
+            return;
+        }
+        for (Map<String, Object> script : (List<Map<String, Object>>) coverage.get("result")) {
+            String file = fileOf((String) script.get("url"));
+            if (file == null) {
+                continue;
+            }
+            if (file.endsWith(".html")) {
+                // Inline handlers (onclick="...") are compiled as scripts of the page itself
+                units.add(file);
+                continue;
+            }
+            String source = TestImpact.readAsset(file);
+            if (source == null) {
+                continue;
+            }
+            String[] lineUnits = unitsByFile.computeIfAbsent(file, name -> TestImpact.unitsByLine(source));
+            for (Map<String, Object> function : (List<Map<String, Object>>) script.get("functions")) {
+                Map<String, Object> range = ((List<Map<String, Object>>) function.get("ranges")).get(0);
+                if (((Number) range.get("count")).longValue() > 0) {
+                    int offset = ((Number) range.get("startOffset")).intValue();
+                    units.add(file + "#" + TestImpact.unitAt(source, lineUnits, offset));
+                }
+            }
+        }
+    }
+
+    private void addPage(String url) {
+        String file = fileOf(url);
+        if (file != null && file.endsWith(".html") && !file.equals(BrowserReset.BLANK_PAGE)) {
+            units.add(file);
+        }
+    }
+
+    // Site file name for a URL served by the site, null for anything else (injected scripts, about:blank)
+    private static String fileOf(String url) {
+        if (url == null || !url.startsWith("http")) {
+            return null;
+        }
+        String path = URI.create(url).getPath();
+        String file = path == null ? "" : path.substring(path.lastIndexOf('/') + 1);
+        return file.endsWith(".js") || file.endsWith(".html") ? file : null;
+    }
+}
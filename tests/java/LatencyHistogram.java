@@ -0,0 +1,105 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Fixed-size latency histogram in the style of HdrHistogram: values in
+// microseconds go into log-linear buckets, 128 steps per doubling, so every
+// recorded value is kept to within 1% from a microsecond up to an hour
+// (slower values count as an hour) in a few thousand counters. Recording is
+// lock-free, so all virtual users of a LoadDriver run share one histogram
+// per step.
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final long HIGHEST_MICROS = 3_600_000_000L;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(HIGHEST_MICROS) + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(Math.min(micros, HIGHEST_MICROS)));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        max.accumulate(micros);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    double meanMillis() {
+        long count = total.get();
+        return count == 0 ? 0 : sum.get() / 1000.0 / count;
+    }
+
+    double maxMillis() {
+        return max.get() / 1000.0;
+    }
+
+    // Highest value that is equivalent (same bucket) to the value at this percentile
+    double percentileMillis(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(lowest(i + 1) - 1, max.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    // Percentile distribution in HdrHistogram's .hgrm layout (values in ms),
+    // so the usual plotters can chart it; ticks halve the distance to 100%
+    String percentileDistribution() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+        long count = total.get();
+        if (count > 0) {
+            double percentile = 0;
+            while (true) {
+                long below = (long) Math.ceil(percentile / 100.0 * count);
+                if (percentile >= 100 || 1 / (1 - percentile / 100) > count) {
+                    out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d%n", maxMillis(), 1.0, count));
+                    break;
+                }
+                out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f%n",
+                    percentileMillis(percentile), percentile / 100, Math.max(1, below), 1 / (1 - percentile / 100)));
+                percentile += (100 - percentile) / 2;
+            }
+        }
+        out.append(String.format(Locale.ROOT, "#[Mean    = %12.3f, Max            = %12.3f]%n", meanMillis(), maxMillis()));
+        out.append(String.format(Locale.ROOT, "#[Total count = %8d, SubBuckets     = %12d]%n", count, SUB_COUNT));
+        return out.toString();
+    }
+
+    // ==========================================
+    // BUCKETS
+    // ==========================================
+
+    // Values below SUB_COUNT are exact; above, each doubling gets SUB_COUNT steps
+    static int index(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((micros >> shift) - SUB_COUNT);
+    }
+
+    static long lowest(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        return (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+    }
+}
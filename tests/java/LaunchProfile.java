@@ -0,0 +1,135 @@
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+
+import java.util.Locale;
+import java.util.logging.Level;
+
+// How DriverPool launches Chrome, chosen with -Dbrowser.profile:
+//   headed   - a normal maximised window, handy when watching tests locally (default)
+//   headless - headless=new with a fixed viewport and everything a test run
+//              doesn't need switched off, for build agents
+// -Dbrowser.viewport=WIDTHxHEIGHT, -Dbrowser.pageLoad=normal|eager|none and
+// -Dbrowser.args=--flag,--other=value refine either profile.
+public enum LaunchProfile {
+
+    HEADED(PageLoadStrategy.NORMAL) {
+        @Override
+        void addArguments(ChromeOptions options) {
+        }
+
+        @Override
+        void configureWindow(WebDriver driver, Dimension viewport) {
+            if (viewport == null) {
+                driver.manage().window().maximize();
+            } else {
+                driver.manage().window().setSize(viewport);
+            }
+        }
+    },
+
+    HEADLESS(PageLoadStrategy.EAGER) {
+        @Override
+        void addArguments(ChromeOptions options) {
+            Dimension viewport = viewport() != null ? viewport() : DEFAULT_VIEWPORT;
+            options.addArguments(
+                "--headless=new",
+                "--window-size=" + viewport.getWidth() + "," + viewport.getHeight(),
+                "--disable-gpu",
+                "--disable-dev-shm-usage",
+                "--disable-extensions",
+                "--disable-sync",
+                "--disable-background-networking",
+                "--disable-component-update",
+                "--disable-default-apps",
+                "--no-first-run",
+                "--mute-audio",
+                "--blink-settings=imagesEnabled=false"
+            );
+        }
+
+        @Override
+        void configureWindow(WebDriver driver, Dimension viewport) {
+            // Sized by --window-size at launch
+        }
+    };
+
+    private static final Dimension DEFAULT_VIEWPORT = new Dimension(1366, 768);
+
+    private final PageLoadStrategy defaultPageLoadStrategy;
+
+    LaunchProfile(PageLoadStrategy defaultPageLoadStrategy) {
+        this.defaultPageLoadStrategy = defaultPageLoadStrategy;
+    }
+
+    abstract void addArguments(ChromeOptions options);
+
+    abstract void configureWindow(WebDriver driver, Dimension viewport);
+
+    public static LaunchProfile current() {
+        String name = System.getProperty("browser.profile", "headed");
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown -Dbrowser.profile=" + name + ", expected headed or headless", e);
+        }
+    }
+
+    public ChromeOptions chromeOptions() {
+        ChromeOptions options = new ChromeOptions();
+        addArguments(options);
+
+        String extraArgs = System.getProperty("browser.args", "");
+        for (String arg : extraArgs.split(",")) {
+            if (!arg.isBlank()) {
+                options.addArguments(arg.trim());
+            }
+        }
+
+        options.setPageLoadStrategy(pageLoadStrategy());
+        options.setCapability(ChromeOptions.LOGGING_PREFS, consoleLogging());
+        return options;
+    }
+
+    // A session driving the already running SharedChrome; launch arguments don't apply
+    public ChromeOptions attachOptions(String debuggerAddress) {
+        ChromeOptions options = new ChromeOptions();
+        options.setExperimentalOption("debuggerAddress", debuggerAddress);
+        options.setPageLoadStrategy(pageLoadStrategy());
+        options.setCapability(ChromeOptions.LOGGING_PREFS, consoleLogging());
+        return options;
+    }
+
+    // Keeps the page's console output for FailureArtifactListener
+    private static LoggingPreferences consoleLogging() {
+        LoggingPreferences logging = new LoggingPreferences();
+        logging.enable(LogType.BROWSER, Level.ALL);
+        return logging;
+    }
+
+    private PageLoadStrategy pageLoadStrategy() {
+        String pageLoad = System.getProperty("browser.pageLoad");
+        return pageLoad == null
+            ? defaultPageLoadStrategy
+            : PageLoadStrategy.fromString(pageLoad.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public void configureWindow(WebDriver driver) {
+        configureWindow(driver, viewport());
+    }
+
+    private static Dimension viewport() {
+        String value = System.getProperty("browser.viewport");
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.toLowerCase(Locale.ROOT).split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("-Dbrowser.viewport must look like 1366x768, got " + value);
+        }
+        return new Dimension(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+}
@@ -0,0 +1,120 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Memory of one page sampled over a long session. Each sample first forces a
+// garbage collection (CDP HeapProfiler.collectGarbage), so what is left is
+// what the page still holds on to: the JS heap from CDP Runtime.getHeapUsage
+// and from performance.memory (coarse unless Chrome runs with
+// --enable-precise-memory-info), nodes and event listeners from CDP
+// Memory.getDOMCounters (detached nodes included), nodes still in the
+// document, and the timers waiting on the virtual clock (-1 without one).
+// A metric leaks when every sample in the last third of the run is above
+// the first sample by more than its allowed growth.
+final class LeakMonitor {
+
+    private static final String PAGE_MEMORY_SCRIPT =
+        "return {" +
+        "  jsHeap: performance.memory ? performance.memory.usedJSHeapSize : -1," +
+        "  timers: window.__virtualClock ? window.__virtualClock.pending() : -1," +
+        "  documentNodes: document.getElementsByTagName('*').length" +
+        "};";
+
+    static final String[] METRICS = {"cdpHeapBytes", "jsHeapBytes", "domNodes", "documentNodes", "listeners", "timers"};
+
+    private final HasCdp cdp;
+    private final JavascriptExecutor js;
+    private final List<long[]> samples = new ArrayList<>();
+    private final List<Integer> iterations = new ArrayList<>();
+
+    LeakMonitor(HasCdp cdp, JavascriptExecutor js) {
+        this.cdp = cdp;
+        this.js = js;
+    }
+
+    @SuppressWarnings("unchecked")
+    void sample(int iteration) {
+        cdp.executeCdpCommand("HeapProfiler.collectGarbage", Map.of());
+        Map<String, Object> heap = cdp.executeCdpCommand("Runtime.getHeapUsage", Map.of());
+        Map<String, Object> dom = cdp.executeCdpCommand("Memory.getDOMCounters", Map.of());
+        Map<String, Object> page = (Map<String, Object>) js.executeScript(PAGE_MEMORY_SCRIPT);
+        samples.add(new long[] {
+            number(heap.get("usedSize")),
+            number(page.get("jsHeap")),
+            number(dom.get("nodes")),
+            number(page.get("documentNodes")),
+            number(dom.get("jsEventListeners")),
+            number(page.get("timers"))
+        });
+        iterations.add(iteration);
+    }
+
+    // Growth allowed over the first sample: a fraction of it plus an absolute
+    // floor, so small counts are not held to a percentage. Timers are bounded
+    // absolutely. Returns one line per metric that stayed over its limit.
+    List<String> leaks(double maxHeapGrowth, double maxNodeGrowth, long maxTimers) {
+        List<String> leaks = new ArrayList<>();
+        if (samples.size() < 3) {
+            return leaks;
+        }
+        long[] first = samples.get(0);
+        double[] fractions = {maxHeapGrowth, maxHeapGrowth, maxNodeGrowth, maxNodeGrowth, maxNodeGrowth};
+        long[] floors = {1 << 20, 1 << 20, 100, 100, 100};
+        int from = samples.size() - Math.max(1, samples.size() / 3);
+        for (int m = 0; m < METRICS.length; m++) {
+            long limit = m == METRICS.length - 1 ? maxTimers : first[m] + Math.max(floors[m], (long) (first[m] * fractions[m]));
+            boolean stayedOver = first[m] >= 0;
+            for (int s = from; s < samples.size() && stayedOver; s++) {
+                stayedOver = samples.get(s)[m] > limit;
+            }
+            if (stayedOver) {
+                long[] last = samples.get(samples.size() - 1);
+                leaks.add(String.format("%s grew from %d to %d over %d iterations (limit %d)",
+                    METRICS[m], first[m], last[m], iterations.get(iterations.size() - 1) - iterations.get(0), limit));
+            }
+        }
+        return leaks;
+    }
+
+    String summary() {
+        if (samples.isEmpty()) {
+            return "no samples";
+        }
+        long[] first = samples.get(0);
+        long[] last = samples.get(samples.size() - 1);
+        StringBuilder line = new StringBuilder();
+        for (int m = 0; m < METRICS.length; m++) {
+            line.append(m == 0 ? "" : ", ").append(METRICS[m]).append(' ').append(first[m]).append(" -> ").append(last[m]);
+        }
+        return line.toString();
+    }
+
+    void writeReport(Path dir) {
+        StringBuilder csv = new StringBuilder("iteration," + String.join(",", METRICS) + "\n");
+        for (int s = 0; s < samples.size(); s++) {
+            csv.append(iterations.get(s));
+            for (long value : samples.get(s)) {
+                csv.append(',').append(value);
+            }
+            csv.append('\n');
+        }
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("soak-memory.csv"), csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write soak memory samples to " + dir, e);
+        }
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+}
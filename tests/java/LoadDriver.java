@@ -0,0 +1,302 @@
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs UserJourney for N concurrent virtual users against one shared
+// SiteServer. All users share the one SharedChrome: each attaches its own
+// session and works in a browser context of its own, so storage is
+// isolated, and repeats the journey as a new customer (a new context, new
+// username) until the run ends. Users start evenly spread over the ramp-up
+// phase, then all of them keep going through the steady-state and soak
+// phases. Every step is timed into a LatencyHistogram per phase; the report
+// gives per-step throughput, errors and percentiles (load-report.csv) and the
+// full distributions (load-histograms.hgrm).
+// On Java 21+ each user runs on a virtual thread; older JVMs get one
+// platform thread per user.
+public final class LoadDriver {
+
+    private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_ERROR_SAMPLES = 10;
+
+    private final int users;
+    private final String[] phases = {"ramp-up", "steady", "soak"};
+    private final long[] phaseNanos;
+
+    private final Map<String, Map<String, StepStats>> stats = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> journeys = new ConcurrentHashMap<>();
+    private final AtomicLong failedJourneys = new AtomicLong();
+    private final AtomicLong contextsOpened = new AtomicLong();
+    private final Queue<String> errorSamples = new ConcurrentLinkedQueue<>();
+    private volatile List<String> stepOrder = List.of();
+
+    private long startNanos;
+    private String baseUrl;
+    private SharedChrome shared;
+
+    public LoadDriver(int users, Duration rampUp, Duration steady, Duration soak) {
+        if (users < 1) {
+            throw new IllegalArgumentException("A load run needs at least one virtual user, was " + users);
+        }
+        this.users = users;
+        this.phaseNanos = new long[] {rampUp.toNanos(), steady.toNanos(), soak.toNanos()};
+    }
+
+    // -Dload.users, -Dload.rampUpSec, -Dload.steadySec, -Dload.soakSec
+    public static LoadDriver fromSystemProperties() {
+        return new LoadDriver(
+            Integer.getInteger("load.users", 4),
+            Duration.ofSeconds(Long.getLong("load.rampUpSec", 10)),
+            Duration.ofSeconds(Long.getLong("load.steadySec", 30)),
+            Duration.ofSeconds(Long.getLong("load.soakSec", 0)));
+    }
+
+    public void run() {
+        SiteServer server = SiteServer.start();
+        baseUrl = server.baseUrl();
+        shared = SharedChrome.get();
+        ExecutorService executor = newUserExecutor(users);
+        try {
+            startNanos = System.nanoTime();
+            List<Future<?>> running = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                int id = user;
+                running.add(executor.submit(() -> runUser(id)));
+            }
+            for (Future<?> user : running) {
+                user.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A virtual user crashed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    // Newer JDKs have virtual threads; the suite still compiles for Java 11
+    private static ExecutorService newUserExecutor(int users) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger next = new AtomicInteger();
+            return Executors.newFixedThreadPool(users, runnable -> {
+                Thread thread = new Thread(runnable, "virtual-user-" + next.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ==========================================
+    // VIRTUAL USER
+    // ==========================================
+
+    private void runUser(int user) {
+        if (!sleepUntil(startNanos + phaseNanos[0] * user / users)) {
+            return;
+        }
+        long endNanos = startNanos + Arrays.stream(phaseNanos).sum();
+        ChromeDriver chrome = null;
+        String contextId = null;
+        try {
+            chrome = DriverPool.attach(shared);
+            WebDriverWait wait = new EventWait(chrome, WAIT_TIMEOUT);
+            for (int iteration = 0; System.nanoTime() < endNanos; iteration++) {
+                // A new customer gets a new context; the last one's storage goes with its context
+                String previous = contextId;
+                contextId = DriverPool.openContext(shared, chrome);
+                contextsOpened.incrementAndGet();
+                if (previous != null) {
+                    shared.disposeContext(previous);
+                }
+                String username = "vu" + user + "n" + iteration + "t" + System.currentTimeMillis();
+                runJourney(new UserJourney(chrome, wait, baseUrl, username));
+            }
+        } catch (RuntimeException e) {
+            // Attaching or opening a context failed: the session is gone, so this user stops
+            failedJourneys.incrementAndGet();
+            sampleError("user " + user, e);
+        } finally {
+            if (chrome != null) {
+                try {
+                    if (contextId != null) {
+                        shared.disposeContext(contextId);
+                    }
+                } finally {
+                    // Only detaches from the shared browser
+                    chrome.quit();
+                }
+            }
+        }
+    }
+
+    // Steps are counted in the phase they started in; a failed step ends the journey
+    private void runJourney(UserJourney journey) {
+        String journeyPhase = phaseAt(System.nanoTime());
+        List<String> steps = journey.steps();
+        stepOrder = steps;
+        for (String step : steps) {
+            long began = System.nanoTime();
+            try {
+                journey.run(step);
+                stepStats(phaseAt(began), step).latency.recordNanos(System.nanoTime() - began);
+            } catch (RuntimeException | AssertionError e) {
+                stepStats(phaseAt(began), step).errors.incrementAndGet();
+                failedJourneys.incrementAndGet();
+                sampleError(step, e);
+                return;
+            }
+        }
+        journeys.computeIfAbsent(journeyPhase, phase -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Work still finishing after the last phase counts toward the last phase that has a length
+    private String phaseAt(long nanos) {
+        long elapsed = nanos - startNanos;
+        String last = phases[0];
+        for (int i = 0; i < phases.length; i++) {
+            if (phaseNanos[i] == 0) {
+                continue;
+            }
+            if (elapsed < phaseNanos[i]) {
+                return phases[i];
+            }
+            elapsed -= phaseNanos[i];
+            last = phases[i];
+        }
+        return last;
+    }
+
+    private StepStats stepStats(String phase, String step) {
+        return stats.computeIfAbsent(phase, name -> new ConcurrentHashMap<>())
+            .computeIfAbsent(step, name -> new StepStats());
+    }
+
+    private void sampleError(String where, Throwable e) {
+        if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+            String message = String.valueOf(e.getMessage()).split("\n")[0];
+            errorSamples.add(where + ": " + e.getClass().getSimpleName() + ": " + message);
+        }
+    }
+
+    private static boolean sleepUntil(long nanos) {
+        long remaining = nanos - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class StepStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    // ==========================================
+    // REPORT
+    // ==========================================
+
+    public long completedJourneys() {
+        return journeys.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public double errorRate() {
+        long failed = failedJourneys.get();
+        long all = completedJourneys() + failed;
+        return all == 0 ? 0 : (double) failed / all;
+    }
+
+    public List<String> errorSamples() {
+        return new ArrayList<>(errorSamples);
+    }
+
+    public List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "load: %d users (one browser, %d contexts), %d journeys, %d failed",
+            users, contextsOpened.get(), completedJourneys(), failedJourneys.get()));
+        for (int i = 0; i < phases.length; i++) {
+            Map<String, StepStats> phase = stats.get(phases[i]);
+            if (phase == null || phaseNanos[i] == 0) {
+                continue;
+            }
+            double seconds = phaseNanos[i] / 1e9;
+            AtomicLong done = journeys.get(phases[i]);
+            lines.add(String.format(Locale.ROOT, "  %s (%.0fs): %.2f journeys/s",
+                phases[i], seconds, (done == null ? 0 : done.get()) / seconds));
+            for (String step : stepOrder) {
+                StepStats stepStats = phase.get(step);
+                if (stepStats != null) {
+                    LatencyHistogram latency = stepStats.latency;
+                    lines.add(String.format(Locale.ROOT,
+                        "    %-14s %7.2f/s errors=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                        step, latency.count() / seconds, stepStats.errors.get(), latency.percentileMillis(50),
+                        latency.percentileMillis(90), latency.percentileMillis(99), latency.maxMillis()));
+                }
+            }
+        }
+        return lines;
+    }
+
+    public void writeReport(Path dir) {
+        StringBuilder csv = new StringBuilder(
+            "phase,step,count,errors,perSecond,meanMs,p50Ms,p90Ms,p99Ms,p999Ms,maxMs\n");
+        StringBuilder histograms = new StringBuilder();
+        for (int i = 0; i < phases.length; i++) {
+            Map<String, StepStats> phase = stats.get(phases[i]);
+            if (phase == null || phaseNanos[i] == 0) {
+                continue;
+            }
+            double seconds = phaseNanos[i] / 1e9;
+            for (String step : stepOrder) {
+                StepStats stepStats = phase.get(step);
+                if (stepStats == null) {
+                    continue;
+                }
+                LatencyHistogram latency = stepStats.latency;
+                csv.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                    phases[i], step, latency.count(), stepStats.errors.get(), latency.count() / seconds,
+                    latency.meanMillis(), latency.percentileMillis(50), latency.percentileMillis(90),
+                    latency.percentileMillis(99), latency.percentileMillis(99.9), latency.maxMillis()));
+                histograms.append("# ").append(phases[i]).append(' ').append(step).append('\n')
+                    .append(latency.percentileDistribution()).append('\n');
+            }
+        }
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("load-report.csv"), csv, StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve("load-histograms.hgrm"), histograms, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the load report", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+public class LoginPage extends BasePage {
+
+    private static final By USERNAME = testId("username-input");
+    private static final By PASSWORD = testId("password-input");
+    private static final By LOGIN_BUTTON = testId("login-button");
+    private static final By LOGIN_ERROR = testId("login-error");
+
+    public LoginPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+        super(driver, wait, baseUrl);
+    }
+
+    @Override
+    protected String path() {
+        return "login.html";
+    }
+
+    public LoginPage open() {
+        load();
+        return this;
+    }
+
+    // Submits the form; performLogin() redirects to the dashboard after a delay
+    public void loginAs(String username, String password) {
+        type(USERNAME, username);
+        type(PASSWORD, password);
+        click(LOGIN_BUTTON);
+    }
+
+    public String errorText() {
+        return text(LOGIN_ERROR);
+    }
+}
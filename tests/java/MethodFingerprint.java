@@ -0,0 +1,245 @@
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Canonical text of a test method's bytecode for ResultCache. Constant-pool
+// references are resolved to their values (strings, numbers, owner.name:desc)
+// and line numbers are left out, so the text changes when the method's
+// behaviour can change but not when an unrelated method moves things around
+// in the class file. Methods of the same class that it calls (helpers,
+// lambda bodies) are folded in, as are the constructor, the static
+// initialiser and the class's TestNG configuration methods (@BeforeMethod,
+// @AfterSuite...), which run around every test.
+final class MethodFingerprint {
+
+    private MethodFingerprint() {
+    }
+
+    static String of(Class<?> type, String methodName) {
+        String owner = type.getName().replace('.', '/');
+        Map<String, MethodText> methods = read(type, owner);
+
+        Deque<String> pending = new ArrayDeque<>();
+        for (Map.Entry<String, MethodText> entry : methods.entrySet()) {
+            String signature = entry.getKey();
+            if (signature.startsWith(methodName + "(") || signature.startsWith("<init>(") || signature.startsWith("<clinit>(")
+                || entry.getValue().configuration) {
+                pending.add(signature);
+            }
+        }
+
+        // Sorted so the result doesn't depend on call order
+        Set<String> included = new TreeSet<>();
+        while (!pending.isEmpty()) {
+            String signature = pending.poll();
+            MethodText method = methods.get(signature);
+            if (method != null && included.add(signature)) {
+                pending.addAll(method.callees);
+            }
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (String signature : included) {
+            fingerprint.append(signature).append('\n').append(methods.get(signature).text).append('\n');
+        }
+        return fingerprint.toString();
+    }
+
+    private static Map<String, MethodText> read(Class<?> type, String owner) {
+        Map<String, MethodText> methods = new HashMap<>();
+        try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("No class file found for " + type.getName());
+            }
+            new ClassReader(in).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    MethodText method = new MethodText(owner);
+                    methods.put(name + descriptor, method);
+                    return method.visitor();
+                }
+            }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file of " + type.getName(), e);
+        }
+        return methods;
+    }
+
+    private static final class MethodText {
+
+        private static final String TESTNG_ANNOTATIONS = "Lorg/testng/annotations/";
+
+        final StringBuilder text = new StringBuilder();
+        final Set<String> callees = new HashSet<>();
+        boolean configuration;
+        private final String owner;
+        private final Map<Label, Integer> labels = new HashMap<>();
+
+        MethodText(String owner) {
+            this.owner = owner;
+        }
+
+        private String label(Label label) {
+            return "L" + labels.computeIfAbsent(label, l -> labels.size());
+        }
+
+        private void call(String callOwner, String name, String descriptor) {
+            if (owner.equals(callOwner)) {
+                callees.add(name + descriptor);
+            }
+        }
+
+        private MethodText line(Object... parts) {
+            for (Object part : parts) {
+                text.append(part).append(' ');
+            }
+            text.append('\n');
+            return this;
+        }
+
+        MethodVisitor visitor() {
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    line("@", descriptor);
+                    if (descriptor.startsWith(TESTNG_ANNOTATIONS + "Before") || descriptor.startsWith(TESTNG_ANNOTATIONS + "After")) {
+                        configuration = true;
+                    }
+                    return annotationValues();
+                }
+
+                @Override
+                public void visitInsn(int opcode) {
+                    line(opcode);
+                }
+
+                @Override
+                public void visitIntInsn(int opcode, int operand) {
+                    line(opcode, operand);
+                }
+
+                @Override
+                public void visitVarInsn(int opcode, int var) {
+                    line(opcode, var);
+                }
+
+                @Override
+                public void visitTypeInsn(int opcode, String type) {
+                    line(opcode, type);
+                }
+
+                @Override
+                public void visitFieldInsn(int opcode, String fieldOwner, String name, String descriptor) {
+                    line(opcode, fieldOwner, name, descriptor);
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String methodOwner, String name, String descriptor, boolean isInterface) {
+                    line(opcode, methodOwner, name, descriptor);
+                    call(methodOwner, name, descriptor);
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrap, Object... arguments) {
+                    line("indy", name, descriptor, bootstrap);
+                    for (Object argument : arguments) {
+                        line(" ", argument);
+                        if (argument instanceof Handle) {
+                            Handle handle = (Handle) argument;
+                            call(handle.getOwner(), handle.getName(), handle.getDesc());
+                        }
+                    }
+                }
+
+                @Override
+                public void visitJumpInsn(int opcode, Label target) {
+                    line(opcode, label(target));
+                }
+
+                @Override
+                public void visitLabel(Label label) {
+                    line(label(label));
+                }
+
+                @Override
+                public void visitLdcInsn(Object value) {
+                    line("ldc", value.getClass().getSimpleName(), value);
+                }
+
+                @Override
+                public void visitIincInsn(int var, int increment) {
+                    line("iinc", var, increment);
+                }
+
+                @Override
+                public void visitTableSwitchInsn(int min, int max, Label dflt, Label... targets) {
+                    line("tableswitch", min, max, label(dflt));
+                    for (Label target : targets) {
+                        line(" ", label(target));
+                    }
+                }
+
+                @Override
+                public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] targets) {
+                    line("lookupswitch", label(dflt));
+                    for (int i = 0; i < keys.length; i++) {
+                        line(" ", keys[i], label(targets[i]));
+                    }
+                }
+
+                @Override
+                public void visitMultiANewArrayInsn(String descriptor, int dimensions) {
+                    line("multianewarray", descriptor, dimensions);
+                }
+
+                @Override
+                public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+                    line("try", label(start), label(end), label(handler), type);
+                }
+            };
+        }
+
+        // @Test(priority = 3, groups = "perf") and friends change how a test runs, so they count too
+        private AnnotationVisitor annotationValues() {
+            return new AnnotationVisitor(Opcodes.ASM9) {
+                @Override
+                public void visit(String name, Object value) {
+                    line(" ", name, value instanceof Object[] ? Arrays.toString((Object[]) value) : value);
+                }
+
+                @Override
+                public void visitEnum(String name, String descriptor, String value) {
+                    line(" ", name, descriptor, value);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+                    line(" ", name, "@", descriptor);
+                    return this;
+                }
+
+                @Override
+                public AnnotationVisitor visitArray(String name) {
+                    line(" ", name, "[]");
+                    return this;
+                }
+            };
+        }
+    }
+}
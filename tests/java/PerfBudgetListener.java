@@ -0,0 +1,40 @@
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import java.util.List;
+
+// Fails a test that passed functionally but pushed a page load or action over
+// one of its perf-budgets.properties limits, and writes perf-metrics.csv next
+// to the timing report at the end of the suite. Page loads in @BeforeMethod
+// (resetBrowser, checkpoints) count against the test they set up.
+public class PerfBudgetListener implements IInvokedMethodListener, ISuiteListener {
+
+    private final TestStart testStart = new TestStart();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (testStart.begins(method)) {
+            PerfMetrics.startTest();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        testStart.finished(method, testResult);
+        List<String> violations = PerfMetrics.violations();
+        if (method.isTestMethod() && testResult.getStatus() == ITestResult.SUCCESS && !violations.isEmpty()) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Performance budget exceeded:\n  " + String.join("\n  ", violations)));
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (PerfMetrics.ENABLED) {
+            PerfMetrics.writeReport(StepTimings.reportDir());
+        }
+    }
+}
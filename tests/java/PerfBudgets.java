@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Upper limits for the browser metrics PerfMetricsListener collects, read
+// from perf-budgets.properties (override with -Dperf.budgets=path). Keys are
+// <target>.<metric>, where the target is a page file name (dashboard.html)
+// or the data-testid of a clicked element (checkout-button). Only targets
+// with at least one budget are measured.
+public final class PerfBudgets {
+
+    private static final String DEFAULT_FILE = "perf-budgets.properties";
+
+    private static final PerfBudgets INSTANCE = load();
+
+    private final Map<String, Map<String, Double>> budgets;
+
+    private PerfBudgets(Map<String, Map<String, Double>> budgets) {
+        this.budgets = budgets;
+    }
+
+    public static PerfBudgets get() {
+        return INSTANCE;
+    }
+
+    public boolean covers(String target) {
+        return target != null && budgets.containsKey(target);
+    }
+
+    public Map<String, Double> forTarget(String target) {
+        return budgets.getOrDefault(target, Collections.emptyMap());
+    }
+
+    private static PerfBudgets load() {
+        String configured = System.getProperty("perf.budgets");
+        Path file = Paths.get(configured != null ? configured : DEFAULT_FILE);
+        if (configured == null && !Files.exists(file)) {
+            return new PerfBudgets(Collections.emptyMap());
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read performance budgets from " + file, e);
+        }
+
+        Map<String, Map<String, Double>> budgets = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            // Targets contain dots (login.html), so the metric is whatever follows the last one
+            int split = key.lastIndexOf('.');
+            if (split <= 0) {
+                throw new IllegalArgumentException("Budget key '" + key + "' should be <target>.<metric>");
+            }
+            budgets.computeIfAbsent(key.substring(0, split), target -> new HashMap<>())
+                .put(key.substring(split + 1), Double.parseDouble(properties.getProperty(key).trim()));
+        }
+        return new PerfBudgets(budgets);
+    }
+}
@@ -0,0 +1,128 @@
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Browser-side performance numbers for page loads and clicks: Navigation and
+// Paint Timing, long tasks and CDP Performance.getMetrics counters. Each
+// value is checked against PerfBudgets; budget violations are kept per test
+// thread until PerfBudgetListener fails the test that caused them.
+// Disable with -Dperf.metrics=false.
+public final class PerfMetrics {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("perf.metrics", "true"));
+
+    // Long tasks are only observable from inside the page, so every document
+    // starts collecting them before script.js runs
+    private static final String LONG_TASK_SCRIPT =
+        "(function() {" +
+        "  if (window.__longTasks) { return; }" +
+        "  window.__longTasks = [];" +
+        "  try {" +
+        "    new PerformanceObserver(function(list) {" +
+        "      list.getEntries().forEach(function(entry) { window.__longTasks.push(entry.duration); });" +
+        "    }).observe({ type: 'longtask', buffered: true });" +
+        "  } catch (e) {}" +
+        "})();";
+
+    private static final Queue<Sample> SAMPLES = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<List<String>> VIOLATIONS = ThreadLocal.withInitial(ArrayList::new);
+
+    private PerfMetrics() {
+    }
+
+    public static void install(HasCdp cdp) {
+        if (ENABLED) {
+            cdp.executeCdpCommand("Performance.enable", Map.of());
+            cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", LONG_TASK_SCRIPT));
+        }
+    }
+
+    // CDP Performance.getMetrics as name -> value (durations in seconds, sizes in bytes)
+    @SuppressWarnings("unchecked")
+    static Map<String, Double> cdpMetrics(HasCdp cdp) {
+        Map<String, Object> response = cdp.executeCdpCommand("Performance.getMetrics", Map.of());
+        Map<String, Double> metrics = new HashMap<>();
+        for (Map<String, Object> metric : (List<Map<String, Object>>) response.get("metrics")) {
+            metrics.put((String) metric.get("name"), ((Number) metric.get("value")).doubleValue());
+        }
+        return metrics;
+    }
+
+    // Records every metric of one page load or action and checks it against the target's budgets
+    static void check(String kind, String target, Map<String, Double> values) {
+        Map<String, Double> budgets = PerfBudgets.get().forTarget(target);
+        String test = StepTimings.currentTest();
+        values.forEach((metric, value) -> {
+            Double budget = budgets.get(metric);
+            SAMPLES.add(new Sample(test, kind, target, metric, value, budget));
+            if (budget != null && value > budget) {
+                VIOLATIONS.get().add(String.format("%s %s: %.1f over budget %.1f", target, metric, value, budget));
+            }
+        });
+    }
+
+    public static void startTest() {
+        VIOLATIONS.get().clear();
+    }
+
+    public static List<String> violations() {
+        return new ArrayList<>(VIOLATIONS.get());
+    }
+
+    // ==========================================
+    // REPORT
+    // ==========================================
+
+    public static void writeReport(Path dir) {
+        List<Sample> samples = new ArrayList<>(SAMPLES);
+        if (samples.isEmpty()) {
+            return;
+        }
+
+        StringBuilder csv = new StringBuilder("test,kind,target,metric,value,budget\n");
+        for (Sample sample : samples) {
+            csv.append(sample.test).append(',')
+                .append(sample.kind).append(',')
+                .append(sample.target).append(',')
+                .append(sample.metric).append(',')
+                .append(Math.round(sample.value * 100) / 100.0).append(',')
+                .append(sample.budget == null ? "" : sample.budget).append('\n');
+        }
+
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("perf-metrics.csv"), csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write performance metrics to " + dir, e);
+        }
+    }
+
+    static final class Sample {
+
+        final String test;
+        final String kind;
+        final String target;
+        final String metric;
+        final double value;
+        final Double budget;
+
+        Sample(String test, String kind, String target, String metric, double value, Double budget) {
+            this.test = test;
+            this.kind = kind;
+            this.target = target;
+            this.metric = metric;
+            this.value = value;
+            this.budget = budget;
+        }
+    }
+}
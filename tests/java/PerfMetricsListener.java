@@ -0,0 +1,171 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Measures every driver.get of a page and every click on an element that
+// PerfBudgets has budgets for, and hands the numbers to PerfMetrics. Page
+// loads report Navigation/Paint Timing from the new document; clicks report
+// the time until the next painted frame. Both add long tasks and the change
+// in CDP counters (layouts, style recalcs, script and task time) over the
+// load or click. Measurements go straight to the ChromeDriver, so they are
+// neither re-entered here nor counted by TimingListener.
+public class PerfMetricsListener implements WebDriverListener {
+
+    // Resolves once the load event has finished and a frame has been painted
+    private static final String PAGE_TIMINGS_SCRIPT =
+        "var done = arguments[arguments.length - 1];" +
+        "function collect() {" +
+        "  var nav = performance.getEntriesByType('navigation')[0];" +
+        "  var result = {};" +
+        "  if (nav) {" +
+        "    result.ttfbMs = nav.responseStart;" +
+        "    result.domContentLoadedMs = nav.domContentLoadedEventEnd;" +
+        "    result.loadMs = nav.loadEventEnd;" +
+        "  }" +
+        "  performance.getEntriesByType('paint').forEach(function(entry) {" +
+        "    if (entry.name === 'first-paint') { result.firstPaintMs = entry.startTime; }" +
+        "    if (entry.name === 'first-contentful-paint') { result.firstContentfulPaintMs = entry.startTime; }" +
+        "  });" +
+        "  var tasks = window.__longTasks || [];" +
+        "  result.longTasks = tasks.length;" +
+        "  result.longTaskMs = tasks.reduce(function(sum, ms) { return sum + ms; }, 0);" +
+        "  done(result);" +
+        "}" +
+        "function afterPaint() { requestAnimationFrame(function() { setTimeout(collect, 0); }); }" +
+        "if (document.readyState === 'complete') { afterPaint(); }" +
+        "else { window.addEventListener('load', function() { setTimeout(afterPaint, 0); }); }";
+
+    private static final String LONG_TASK_COUNT_SCRIPT =
+        "return (window.__longTasks || []).length;";
+
+    // Waits for the frame that shows the click's effect, then returns the long tasks since arguments[0]
+    private static final String ACTION_SETTLED_SCRIPT =
+        "var seen = arguments[0], done = arguments[arguments.length - 1];" +
+        "requestAnimationFrame(function() { setTimeout(function() {" +
+        "  done((window.__longTasks || []).slice(seen));" +
+        "}, 0); });";
+
+    private static final Map<String, String> CDP_COUNTERS = Map.of(
+        "LayoutCount", "layoutCount",
+        "RecalcStyleCount", "recalcStyleCount",
+        "ScriptDuration", "scriptDurationMs",
+        "TaskDuration", "taskDurationMs");
+
+    private final ChromeDriver chrome;
+    private final Map<WebElement, String> elementTestIds = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // The page load or click being measured on this browser, if any
+    private String target;
+    private long startNanos;
+    private Map<String, Double> cdpBefore;
+    private long longTasksBefore;
+
+    public PerfMetricsListener(ChromeDriver chrome) {
+        this.chrome = chrome;
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        String page = pageOf(url);
+        target = PerfBudgets.get().covers(page) ? page : null;
+        if (target != null) {
+            cdpBefore = PerfMetrics.cdpMetrics(chrome);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterGet(WebDriver driver, String url) {
+        if (target == null) {
+            return;
+        }
+        try {
+            // A page that redirected straight away (dashboard.html without a session) isn't the one budgeted
+            if (!target.equals(pageOf(chrome.getCurrentUrl()))) {
+                return;
+            }
+            Map<String, Double> values = numbers((Map<String, Object>) chrome.executeAsyncScript(PAGE_TIMINGS_SCRIPT));
+            values.putAll(cdpDelta());
+            PerfMetrics.check("page", target, values);
+        } catch (WebDriverException e) {
+            // Redirected away before the page finished loading; nothing to measure
+        } finally {
+            target = null;
+        }
+    }
+
+    @Override
+    public void afterFindElement(WebDriver driver, By locator, WebElement result) {
+        String testId = TimingListener.testIdOf(locator);
+        if (testId != null) {
+            elementTestIds.put(result, testId);
+        }
+    }
+
+    @Override
+    public void beforeClick(WebElement element) {
+        String testId = elementTestIds.get(element);
+        target = PerfBudgets.get().covers(testId) ? testId : null;
+        if (target != null) {
+            cdpBefore = PerfMetrics.cdpMetrics(chrome);
+            longTasksBefore = ((Number) chrome.executeScript(LONG_TASK_COUNT_SCRIPT)).longValue();
+            startNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterClick(WebElement element) {
+        if (target == null) {
+            return;
+        }
+        try {
+            List<?> longTasks = (List<?>) chrome.executeAsyncScript(ACTION_SETTLED_SCRIPT, longTasksBefore);
+            Map<String, Double> values = new HashMap<>();
+            values.put("durationMs", (System.nanoTime() - startNanos) / 1e6);
+            values.put("longTasks", (double) longTasks.size());
+            values.put("longTaskMs", longTasks.stream().mapToDouble(ms -> ((Number) ms).doubleValue()).sum());
+            values.putAll(cdpDelta());
+            PerfMetrics.check("action", target, values);
+        } catch (WebDriverException e) {
+            // The click navigated away; the next page load is measured on its own
+        } finally {
+            target = null;
+        }
+    }
+
+    private Map<String, Double> cdpDelta() {
+        Map<String, Double> after = PerfMetrics.cdpMetrics(chrome);
+        Map<String, Double> values = new HashMap<>();
+        CDP_COUNTERS.forEach((cdpName, metric) -> {
+            double delta = after.getOrDefault(cdpName, 0.0) - cdpBefore.getOrDefault(cdpName, 0.0);
+            values.put(metric, metric.endsWith("Ms") ? delta * 1000 : delta);
+        });
+        values.put("jsHeapUsedMb", after.getOrDefault("JSHeapUsedSize", 0.0) / (1024 * 1024));
+        return values;
+    }
+
+    private static Map<String, Double> numbers(Map<String, Object> raw) {
+        Map<String, Double> values = new HashMap<>();
+        raw.forEach((key, value) -> {
+            if (value instanceof Number) {
+                values.put(key, ((Number) value).doubleValue());
+            }
+        });
+        return values;
+    }
+
+    private static String pageOf(String url) {
+        String path = URI.create(url).getPath();
+        return path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,43 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+public class RegisterPage extends BasePage {
+
+    private static final By USERNAME = testId("reg-username-input");
+    private static final By EMAIL = testId("reg-email-input");
+    private static final By PASSWORD = testId("reg-password-input");
+    private static final By CONFIRM = testId("reg-confirm-input");
+    private static final By TERMS = testId("terms-checkbox");
+    private static final By REGISTER_BUTTON = testId("register-button");
+    private static final By SUCCESS = testId("register-success");
+
+    public RegisterPage(WebDriver driver, WebDriverWait wait, String baseUrl) {
+        super(driver, wait, baseUrl);
+    }
+
+    @Override
+    protected String path() {
+        return "register.html";
+    }
+
+    public RegisterPage open() {
+        load();
+        return this;
+    }
+
+    // Fills every field, accepts the terms and submits; performRegister()
+    // redirects to the login page after a delay
+    public void register(String username, String email, String password) {
+        type(USERNAME, username);
+        type(EMAIL, email);
+        type(PASSWORD, password);
+        type(CONFIRM, password);
+        click(TERMS);
+        click(REGISTER_BUTTON);
+    }
+
+    public String successText() {
+        return text(SUCCESS);
+    }
+}
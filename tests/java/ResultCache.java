@@ -0,0 +1,320 @@
+import org.openqa.selenium.manager.SeleniumManager;
+import org.openqa.selenium.manager.SeleniumManagerOutput;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Skips tests that already passed with exactly the same code and assets.
+// A test's key hashes its MethodFingerprint, every other class of the test
+// harness, the HTML/JS/CSS files it loads (from the TestImpact map; every
+// site asset when the test isn't mapped), the launch settings, the Chrome
+// and chromedriver versions and pom.xml (so a dependency bump). A pass
+// is stored as an empty file named after the key under
+// ~/.cache/bakery-e2e/results (-Dresult.cache.dir); a later run with the same
+// key skips the test instead of running it, with a "cached-pass" SkipException
+// and the cachedPass result attribute, so reports list it as skipped. The
+// directory is kept under -Dresult.cache.maxKb by evicting the least
+// recently used entries. -Dresult.cache=force runs everything and refreshes
+// the entries, -Dresult.cache=off turns the cache off. Tests in the perf
+// group measure the machine rather than the code and are never cached.
+public class ResultCache implements IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    static final String MODE = System.getProperty("result.cache", "on").toLowerCase();
+    static final String CACHED_PASS = "cachedPass";
+
+    private static final Path DIR = Paths.get(System.getProperty("result.cache.dir",
+        Paths.get(System.getProperty("user.home"), ".cache", "bakery-e2e", "results").toString()));
+    private static final long MAX_BYTES = Long.getLong("result.cache.maxKb", 2048) * 1024;
+    private static final Duration VERSION_TIMEOUT = Duration.ofSeconds(10);
+
+    // Settings that change what a run exercises without changing any file
+    private static final List<String> ENVIRONMENT = Arrays.asList(
+        "browser.profile", "browser.isolation", "browser.viewport", "browser.pageLoad", "browser.args",
+        "clock", "wait.mode", "checkpoints", "base.url", "java.version");
+
+    private static final Map<String, String> KEYS = new ConcurrentHashMap<>();
+    private static final Map<String, String> FILE_HASHES = new ConcurrentHashMap<>();
+    // Qualified names of the methods whose key has a stored pass
+    private static final Set<String> CACHED = ConcurrentHashMap.newKeySet();
+    private static final Queue<String> SKIPPED = new ConcurrentLinkedQueue<>();
+    // Keys of methods that failed at least once this run; a data-provider
+    // method is only stored when every one of its invocations passed
+    private static final Set<String> FAILED = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if ("off".equals(MODE)) {
+            return methods;
+        }
+
+        // Nothing is removed here: cached passes are skipped in beforeInvocation,
+        // so they still show up in the reports
+        Map<String, Set<String>> impactMap = TestImpact.loadMap();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            if (Arrays.asList(method.getGroups()).contains("perf")) {
+                continue;
+            }
+            String key = key(method, impactMap.get(method.getMethodName()));
+            KEYS.put(method.getQualifiedName(), key);
+
+            Path entry = DIR.resolve(key);
+            if ("on".equals(MODE) && Files.exists(entry)) {
+                touch(entry);
+                CACHED.add(method.getQualifiedName());
+            }
+        }
+        return methods;
+    }
+
+    // For the test class's own setup, which runs before the skip and need not
+    // prepare a browser for a test that won't run
+    public static boolean isCachedPass(Method method) {
+        return CACHED.contains(method.getDeclaringClass().getName() + "." + method.getName());
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod() && CACHED.contains(method.getTestMethod().getQualifiedName())) {
+            testResult.setAttribute(CACHED_PASS, true);
+            SKIPPED.add(method.getTestMethod().getMethodName());
+            throw new SkipException("cached-pass: passed before with unchanged code and assets (key "
+                + KEYS.get(method.getTestMethod().getQualifiedName()).substring(0, 12) + ")");
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        String key = method.isTestMethod() ? KEYS.get(method.getTestMethod().getQualifiedName()) : null;
+        if (key == null || Boolean.TRUE.equals(testResult.getAttribute(CACHED_PASS))) {
+            return;
+        }
+        Path entry = DIR.resolve(key);
+        // Invocations of one method may finish on several threads; a failure
+        // must not be overtaken by a pass that checked FAILED just before it
+        synchronized (FAILED) {
+            try {
+                if (testResult.getStatus() == ITestResult.SUCCESS && !FAILED.contains(key)) {
+                    Files.createDirectories(DIR);
+                    Files.writeString(entry, "", StandardCharsets.UTF_8);
+                } else {
+                    FAILED.add(key);
+                    Files.deleteIfExists(entry);
+                }
+            } catch (IOException e) {
+                // A cache that can't be written just means the test runs again next time
+            }
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!SKIPPED.isEmpty()) {
+            List<String> cached = new ArrayList<>(new TreeSet<>(SKIPPED));
+            System.out.println("[result-cache] " + cached.size() + " cached passes (unchanged code and assets): "
+                + String.join(", ", cached));
+            try {
+                Path report = StepTimings.reportDir().resolve("cached-passes.txt");
+                Files.createDirectories(report.getParent());
+                Files.write(report, cached, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write cached-passes.txt", e);
+            }
+        }
+        evict();
+    }
+
+    // ==========================================
+    // KEYS
+    // ==========================================
+
+    private static String key(ITestNGMethod method, Set<String> units) {
+        Class<?> testClass = method.getRealClass();
+        StringBuilder material = new StringBuilder();
+        material.append(MethodFingerprint.of(testClass, method.getMethodName()));
+        material.append("harness ").append(harnessHash(testClass)).append('\n');
+        for (String file : assetsFor(units)) {
+            material.append(file).append(' ').append(FILE_HASHES.computeIfAbsent(file, ResultCache::assetHash)).append('\n');
+        }
+        for (String property : ENVIRONMENT) {
+            material.append(property).append('=').append(System.getProperty(property, "")).append('\n');
+        }
+        material.append("browser ").append(FILE_HASHES.computeIfAbsent("browser", name -> browserVersion())).append('\n');
+        material.append("pom.xml ").append(FILE_HASHES.computeIfAbsent("build:pom.xml", name -> buildHash())).append('\n');
+        return sha256(material.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Chrome and chromedriver as Selenium Manager resolves them for the launch,
+    // asked once per run, before any browser has started
+    private static String browserVersion() {
+        try {
+            SeleniumManagerOutput.Result paths =
+                SeleniumManager.getInstance().getDriverPath(LaunchProfile.current().chromeOptions(), false);
+            return version(paths.getBrowserPath()) + " / " + version(paths.getDriverPath());
+        } catch (Exception e) {
+            // No way to tell which browser will run; make the key unique so nothing is skipped
+            return "unknown-" + System.nanoTime();
+        }
+    }
+
+    // What the binary says with --version; Chrome on Windows prints nothing,
+    // so then the binary's modification time stands in for it
+    private static String version(String binary) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(binary, "--version").redirectErrorStream(true).start();
+        if (!process.waitFor(VERSION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IOException(binary + " --version did not finish");
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        return output.isEmpty() ? binary + " " + Files.getLastModifiedTime(Paths.get(binary)) : output;
+    }
+
+    // The dependency versions live in pom.xml, next to where Maven runs the suite
+    private static String buildHash() {
+        try {
+            return sha256(Files.readAllBytes(Paths.get("pom.xml")));
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    // Every page loads style.css; a test missing from the impact map may load anything
+    private static Set<String> assetsFor(Set<String> units) {
+        Set<String> files = new TreeSet<>();
+        if (units == null) {
+            try (Stream<Path> paths = Files.list(SiteServer.siteRoot())) {
+                paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".html") || name.endsWith(".js") || name.endsWith(".css"))
+                    .forEach(files::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not list site assets", e);
+            }
+            return files;
+        }
+        for (String unit : units) {
+            int hash = unit.indexOf('#');
+            files.add(hash < 0 ? unit : unit.substring(0, hash));
+        }
+        if (files.stream().anyMatch(file -> file.endsWith(".html"))) {
+            files.add("style.css");
+        }
+        return files;
+    }
+
+    private static String assetHash(String file) {
+        try {
+            return sha256(Files.readAllBytes(SiteServer.siteRoot().resolve(file)));
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    // All classes next to the test class except the test class itself, whose
+    // relevant parts MethodFingerprint already covers
+    private static String harnessHash(Class<?> testClass) {
+        return FILE_HASHES.computeIfAbsent("harness:" + testClass.getName(), name -> {
+            try {
+                Path classes = Paths.get(testClass.getProtectionDomain().getCodeSource().getLocation().toURI());
+                String own = testClass.getSimpleName();
+                StringBuilder hashes = new StringBuilder();
+                try (Stream<Path> paths = Files.walk(classes)) {
+                    for (Path file : paths.filter(path -> path.toString().endsWith(".class")).sorted().collect(Collectors.toList())) {
+                        String fileName = file.getFileName().toString();
+                        if (!fileName.equals(own + ".class") && !fileName.startsWith(own + "$")) {
+                            hashes.append(classes.relativize(file)).append(' ').append(sha256(Files.readAllBytes(file))).append('\n');
+                        }
+                    }
+                }
+                return sha256(hashes.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                // Can't see the harness (packaged oddly); make the key unique so nothing is skipped
+                return "unknown-" + System.nanoTime();
+            }
+        });
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ==========================================
+    // LRU EVICTION
+    // ==========================================
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order
+        }
+    }
+
+    // Entries are empty files, so the bound is on what each costs the file system (one block)
+    private static void evict() {
+        if (!Files.isDirectory(DIR)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(DIR)) {
+            List<Path> newestFirst = entries
+                .sorted(Comparator.comparing(ResultCache::lastModified).reversed())
+                .collect(Collectors.toList());
+            long used = 0;
+            for (Path entry : newestFirst) {
+                used += Math.max(Files.size(entry), 4096);
+                if (used > MAX_BYTES) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        } catch (IOException e) {
+            // Try again at the end of the next run
+        }
+    }
+
+    private static FileTime lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Business logic of script.js checked in the JVM (see ScriptSandbox), without
+// a browser: registration and login validation, isValidEmail, promo codes
+// and the cart's tax and discount math, each over many generated cases.
+// BakeryE2ETest keeps the browser versions of these checks for the wiring
+// between page and script. Run on its own with mvn test -Plogic.
+public class ScriptLogicTest {
+
+    private static final String[] MENU_NAMES = {
+        "Chocolate Donut", "Strawberry Tart", "Vanilla Glazed", "Red Velvet Slice", "Hot Coffee", "Iced Latte"};
+    private static final double[] MENU_PRICES = {2.50, 4.00, 1.50, 5.50, 3.00, 4.50};
+
+    private ScriptSandbox sandbox;
+
+    @BeforeClass
+    public void openSandbox() {
+        sandbox = ScriptSandbox.open("register.html");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void closeSandbox() {
+        sandbox.close();
+    }
+
+    // Every case starts like a fresh visit: empty storage, page just loaded
+    private ScriptSandbox page(String page) {
+        sandbox.clearStorage();
+        return sandbox.load(page);
+    }
+
+    private static void report(String what, int cases, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        Reporter.log(String.format("%s: %d cases in %.2fs (%.0f/s)", what, cases, seconds, cases / seconds), true);
+    }
+
+    private static void assertNoFailures(List<String> failures, int cases) {
+        Assert.assertTrue(failures.isEmpty(), failures.size() + " of " + cases + " cases failed, first: "
+            + failures.subList(0, Math.min(5, failures.size())));
+    }
+
+    // ==========================================
+    // EMAIL VALIDATION
+    // ==========================================
+
+    @DataProvider
+    public Object[][] emails() {
+        return new Object[][] {
+            {"test@email.com", true},
+            {"first.last@bakery.co.uk", true},
+            {"a@b.c", true},
+            {"user+tag@domain.org", true},
+            {"", false},
+            {"invalidemail", false},
+            {"a@b", false},
+            {"@email.com", false},
+            {"test@.com", false},
+            {"test@email.", false},
+            {"te st@email.com", false},
+            {"test@em ail.com", false},
+            {"test@@email.com", false},
+            {"test@email@com.org", false},
+        };
+    }
+
+    @Test(dataProvider = "emails")
+    public void testIsValidEmail(String email, boolean valid) {
+        Assert.assertEquals(sandbox.call("isValidEmail", email).asBoolean(), valid, "isValidEmail(\"" + email + "\")");
+    }
+
+    // ==========================================
+    // REGISTRATION VALIDATION
+    // ==========================================
+
+    // Every combination of empty, too short and valid fields, with and without
+    // the terms box; the same rules as testRegisterWith* in BakeryE2ETest
+    @Test
+    public void testRegisterValidation() {
+        String[] usernames = {"", "ab", "  ab  ", "testuser"};
+        String[] emails = {"", "invalidemail", "a@b", "test@email.com"};
+        String[] passwords = {"", "12345", "password123"};
+        String[] confirms = {"", "password123", "differentpassword"};
+
+        List<String> failures = new ArrayList<>();
+        int cases = 0;
+        long start = System.nanoTime();
+        for (String username : usernames) {
+            for (String email : emails) {
+                for (String password : passwords) {
+                    for (String confirm : confirms) {
+                        for (boolean terms : new boolean[] {false, true}) {
+                            cases++;
+                            page("register.html")
+                                .type("reg-username-input", username)
+                                .type("reg-email-input", email)
+                                .type("reg-password-input", password)
+                                .type("reg-confirm-input", confirm)
+                                .check("terms-checkbox", terms)
+                                .click("register-button");
+
+                            String expected = String.join("|",
+                                username.trim().isEmpty() ? "Username is required"
+                                    : username.trim().length() < 3 ? "Username must be at least 3 characters" : "",
+                                email.isEmpty() ? "Email is required"
+                                    : !email.equals("test@email.com") ? "Please enter a valid email address" : "",
+                                password.isEmpty() ? "Password is required"
+                                    : password.length() < 6 ? "Password must be at least 6 characters" : "",
+                                confirm.isEmpty() ? "Please confirm your password"
+                                    : !confirm.equals(password) ? "Passwords do not match" : "",
+                                terms ? "" : "You must agree to the Terms & Conditions");
+                            String actual = String.join("|",
+                                sandbox.text("reg-username-error"), sandbox.text("reg-email-error"),
+                                sandbox.text("reg-password-error"), sandbox.text("reg-confirm-error"),
+                                sandbox.hasClass("register-error", "hidden") ? "" : sandbox.text("register-error"));
+
+                            boolean valid = expected.equals("||||");
+                            sandbox.runTimers();
+                            boolean registered = "testuser".equals(sandbox.localItem("storedUser"))
+                                && sandbox.text("register-success").contains("successful")
+                                && sandbox.location().equals("login.html");
+                            if (!actual.equals(expected) || registered != valid) {
+                                failures.add(String.format("[%s|%s|%s|%s|%s] expected %s got %s registered=%s",
+                                    username, email, password, confirm, terms, expected, actual, registered));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        report("registration validation", cases, start);
+        assertNoFailures(failures, cases);
+    }
+
+    // ==========================================
+    // LOGIN VALIDATION
+    // ==========================================
+
+    @Test
+    public void testLoginValidation() {
+        String[] usernames = {"", "testuser", " testuser ", "otheruser"};
+        String[] passwords = {"", "password123", "wrongpass"};
+
+        List<String> failures = new ArrayList<>();
+        int cases = 0;
+        long start = System.nanoTime();
+        for (String username : usernames) {
+            for (String password : passwords) {
+                for (boolean remember : new boolean[] {false, true}) {
+                    cases++;
+                    page("login.html");
+                    sandbox.setLocalItem("storedUser", "testuser");
+                    sandbox.setLocalItem("storedPass", "password123");
+                    sandbox.type("username-input", username)
+                        .type("password-input", password)
+                        .check("remember-checkbox", remember)
+                        .click("login-button");
+
+                    boolean matches = username.trim().equals("testuser") && password.equals("password123");
+                    String expected = String.join("|",
+                        username.trim().isEmpty() ? "Username is required" : "",
+                        password.isEmpty() ? "Password is required" : "",
+                        username.trim().isEmpty() || password.isEmpty() || matches ? "" : "Invalid username or password");
+                    String actual = String.join("|",
+                        sandbox.text("username-error"), sandbox.text("password-error"),
+                        sandbox.hasClass("login-error", "hidden") ? "" : sandbox.text("login-error"));
+
+                    sandbox.runTimers();
+                    boolean loggedIn = "testuser".equals(sandbox.sessionItem("currentUser"))
+                        && sandbox.location().equals("dashboard.html")
+                        && (remember == "testuser".equals(sandbox.localItem("rememberedUser")));
+                    if (!actual.equals(expected) || loggedIn != matches) {
+                        failures.add(String.format("[%s|%s|%s] expected %s got %s loggedIn=%s",
+                            username, password, remember, expected, actual, loggedIn));
+                    }
+                }
+            }
+        }
+        report("login validation", cases, start);
+        assertNoFailures(failures, cases);
+    }
+
+    // ==========================================
+    // PROMO CODES
+    // ==========================================
+
+    @DataProvider
+    public Object[][] promoCodes() {
+        return new Object[][] {
+            {"SWEET10", "Promo code applied! 10% discount"},
+            {"BAKER20", "Promo code applied! 20% discount"},
+            {"TREAT15", "Promo code applied! 15% discount"},
+            {"sweet10", "Promo code applied! 10% discount"},
+            {"  Baker20  ", "Promo code applied! 20% discount"},
+            {"", "Please enter a promo code"},
+            {"   ", "Please enter a promo code"},
+            {"INVALIDCODE", "Invalid promo code"},
+            {"SWEET", "Invalid promo code"},
+            {"SWEET100", "Invalid promo code"},
+            {"SWEET 10", "Invalid promo code"},
+            {"toString", "Invalid promo code"},
+        };
+    }
+
+    // testValidPromoCode / testInvalidPromoCode, over every code and a few near misses
+    @Test(dataProvider = "promoCodes")
+    public void testPromoCode(String code, String message) {
+        page("dashboard.html").click("quick-add-1").type("promo-input", code).click("apply-promo-button");
+
+        Assert.assertEquals(sandbox.text("promo-message"), message);
+        Assert.assertFalse(sandbox.hasClass("promo-message", "hidden"));
+        Assert.assertEquals(sandbox.hasClass("promo-message", "success-text"), message.startsWith("Promo code applied"));
+    }
+
+    @Test
+    public void testPromoCodeAppliedOnce() {
+        page("dashboard.html").click("quick-add-1").type("promo-input", "SWEET10").click("apply-promo-button");
+        sandbox.type("promo-input", "BAKER20").click("apply-promo-button");
+
+        Assert.assertTrue(sandbox.text("promo-message").contains("already been applied"));
+        // The first discount stays: 2.50 + 10% tax, less 10%
+        Assert.assertEquals(sandbox.text("total-price"), "2.48");
+    }
+
+    // ==========================================
+    // CART TOTALS
+    // ==========================================
+
+    @Test
+    public void testCartTotalCalculation() {
+        page("dashboard.html").click("quick-add-1").click("quick-add-2");
+
+        Assert.assertEquals(sandbox.text("subtotal"), "6.50");
+        Assert.assertEquals(sandbox.text("tax-amount"), "0.65");
+        Assert.assertEquals(sandbox.text("total-price"), "7.15");
+    }
+
+    // Random carts, with removals and promo codes, against the same
+    // arithmetic done in Java (toFixed(2) rounds the exact binary value half up)
+    @Test
+    public void testCartTotalsRandomCarts() {
+        int carts = Integer.getInteger("logic.carts", 2000);
+        String[] codes = {null, "SWEET10", "BAKER20", "TREAT15"};
+        double[] discounts = {0, 0.10, 0.20, 0.15};
+        Random random = new Random(20241017L);
+
+        List<String> failures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < carts; c++) {
+            page("dashboard.html");
+            long[] quantities = new long[MENU_NAMES.length];
+            int adds = 1 + random.nextInt(8);
+            for (int i = 0; i < adds; i++) {
+                int item = random.nextInt(MENU_NAMES.length);
+                int qty = 1 + random.nextInt(5);
+                sandbox.call("addItemToCart", MENU_NAMES[item], MENU_PRICES[item], qty);
+                quantities[item] += qty;
+            }
+            // Ids follow first-add order, so removing the first line drops its item
+            if (random.nextInt(4) == 0) {
+                String first = sandbox.eval("cart[0].name").asString();
+                sandbox.call("removeFromCart", sandbox.eval("cart[0].id"));
+                quantities[Arrays.asList(MENU_NAMES).indexOf(first)] = 0;
+            }
+            int promo = random.nextInt(codes.length);
+            if (codes[promo] != null) {
+                sandbox.type("promo-input", codes[promo]).click("apply-promo-button");
+            }
+
+            long subtotalCents = 0;
+            long count = 0;
+            for (int i = 0; i < MENU_NAMES.length; i++) {
+                subtotalCents += Math.round(MENU_PRICES[i] * 100) * quantities[i];
+                count += quantities[i];
+            }
+            double subtotal = subtotalCents / 100.0;
+            double tax = subtotal * 0.10;
+            double total = subtotal + tax;
+            if (codes[promo] != null) {
+                total = total * (1 - discounts[promo]);
+            }
+            String expected = count == 0 ? "0 items"
+                : count + (count == 1 ? " item" : " items") + " " + toFixed2(subtotal) + " " + toFixed2(tax) + " " + toFixed2(total);
+            String actual = count == 0 ? sandbox.text("cart-count")
+                : sandbox.text("cart-count") + " " + sandbox.text("subtotal") + " " + sandbox.text("tax-amount") + " " + sandbox.text("total-price");
+            if (!expected.equals(actual)) {
+                failures.add("cart " + c + ": expected " + expected + " got " + actual);
+            }
+        }
+        report("cart totals", carts, start);
+        assertNoFailures(failures, carts);
+    }
+
+    private static String toFixed2(double value) {
+        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+}
@@ -0,0 +1,314 @@
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs script.js inside the JVM (GraalJS) against a minimal stand-in for one
+// page instead of a browser. The stand-in has every element of the page's
+// HTML that carries an id or data-testid (tag, attributes, classes, value,
+// initial text), innerText/innerHTML/classList, table rows and cells,
+// localStorage and sessionStorage, queued timers and window.location. That
+// covers the validation, promo and cart logic; layout, focus and real event
+// dispatch stay with BakeryE2ETest. script.js is parsed once per JVM and
+// load() re-runs it in the same context, so a fresh page costs well under a
+// millisecond. A sandbox belongs to one thread, like a browser.
+public final class ScriptSandbox implements AutoCloseable {
+
+    // Globals script.js expects from the browser. Page elements are flat
+    // children of the document; innerHTML understands simple markup like the
+    // cart row template (one level of <td>, a <button> inside).
+    private static final String DOM_SHIM_SCRIPT =
+        "var __page = { byId: {}, timers: [] };" +
+        "function __Element(tag, attrs, text) {" +
+        "  this.tagName = tag.toUpperCase(); this.attributes = {}; this.children = []; this.parentNode = null;" +
+        "  this.style = {}; this.listeners = {}; this._text = text || '';" +
+        "  for (var name in attrs) { this.setAttribute(name, attrs[name]); }" +
+        "  this.value = 'value' in attrs ? attrs.value : '';" +
+        "  this.checked = 'checked' in attrs;" +
+        "}" +
+        "__Element.prototype = {" +
+        "  setAttribute: function(name, value) {" +
+        "    this.attributes[name] = String(value);" +
+        "    if (name === 'id') { this.id = String(value); }" +
+        "    if (name === 'class') { this.className = String(value); }" +
+        "  }," +
+        "  getAttribute: function(name) {" +
+        "    if (name === 'class') { return this.className; }" +
+        "    return name in this.attributes ? this.attributes[name] : null;" +
+        "  }," +
+        "  get className() { return this.attributes['class'] || ''; }," +
+        "  set className(value) { this.attributes['class'] = String(value); }," +
+        "  get classList() {" +
+        "    var element = this;" +
+        "    function names() { return element.className.split(/\\s+/).filter(Boolean); }" +
+        "    return {" +
+        "      contains: function(name) { return names().indexOf(name) >= 0; }," +
+        "      add: function(name) { if (!this.contains(name)) { element.className = names().concat(name).join(' '); } }," +
+        "      remove: function(name) { element.className = names().filter(function(n) { return n !== name; }).join(' '); }," +
+        "      toggle: function(name) { if (this.contains(name)) { this.remove(name); return false; } this.add(name); return true; }" +
+        "    };" +
+        "  }," +
+        "  get textContent() { return this._text + this.children.map(function(c) { return c.textContent; }).join(''); }," +
+        "  set textContent(value) { this.children = []; this._text = String(value); }," +
+        "  get innerText() { return this.textContent; }," +
+        "  set innerText(value) { this.textContent = value; }," +
+        "  set innerHTML(html) { this.children = []; this._text = ''; __parseInto(this, String(html)); }," +
+        "  get rows() { return this.children.filter(function(c) { return c.tagName === 'TR'; }); }," +
+        "  get cells() { return this.children.filter(function(c) { return c.tagName === 'TD' || c.tagName === 'TH'; }); }," +
+        "  appendChild: function(child) { child.parentNode = this; this.children.push(child); return child; }," +
+        "  remove: function() {" +
+        "    if (this.parentNode) { this.parentNode.children.splice(this.parentNode.children.indexOf(this), 1); this.parentNode = null; }" +
+        "  }," +
+        "  contains: function(other) { while (other) { if (other === this) { return true; } other = other.parentNode; } return false; }," +
+        "  addEventListener: function(type, listener) { (this.listeners[type] = this.listeners[type] || []).push(listener); }," +
+        "  dispatchEvent: function(event) {" +
+        "    var element = this;" +
+        "    (this.listeners[event.type] || []).forEach(function(l) { l.call(element, event); });" +
+        "    return true;" +
+        "  }," +
+        "  querySelectorAll: function(selectors) {" +
+        "    var found = [];" +
+        "    (function walk(element) {" +
+        "      element.children.forEach(function(child) {" +
+        "        if (selectors.split(',').some(function(s) { return __matches(child, s.trim()); })) { found.push(child); }" +
+        "        walk(child);" +
+        "      });" +
+        "    })(this);" +
+        "    return found;" +
+        "  }," +
+        "  querySelector: function(selectors) { return this.querySelectorAll(selectors)[0] || null; }" +
+        "};" +
+        "function __matches(element, selector) {" +
+        "  if (selector.charAt(0) === '.') { return element.classList.contains(selector.slice(1)); }" +
+        "  if (selector.charAt(0) === '#') { return element.id === selector.slice(1); }" +
+        "  var attribute = /^\\[([\\w-]+)=\"([^\"]*)\"\\]$/.exec(selector);" +
+        "  if (attribute) { return element.getAttribute(attribute[1]) === attribute[2]; }" +
+        "  return element.tagName === selector.toUpperCase();" +
+        "}" +
+        "function __parseInto(parent, html) {" +
+        "  var tag = /<(\\w+)([^>]*)>([\\s\\S]*?)<\\/\\1>/g, attr = /([\\w-]+)=\"([^\"]*)\"/g, match, found = false;" +
+        "  while ((match = tag.exec(html)) !== null) {" +
+        "    found = true;" +
+        "    var attrs = {}, a;" +
+        "    while ((a = attr.exec(match[2])) !== null) { attrs[a[1]] = a[2]; }" +
+        "    var child = parent.appendChild(new __Element(match[1], attrs));" +
+        "    __parseInto(child, match[3]);" +
+        "  }" +
+        "  if (!found) { parent._text = html.trim(); }" +
+        "}" +
+        "function __Storage() { this.data = new Map(); }" +
+        "__Storage.prototype = {" +
+        "  getItem: function(key) { key = String(key); return this.data.has(key) ? this.data.get(key) : null; }," +
+        "  setItem: function(key, value) { this.data.set(String(key), String(value)); }," +
+        "  removeItem: function(key) { this.data.delete(String(key)); }," +
+        "  clear: function() { this.data.clear(); }," +
+        "  key: function(index) { return Array.from(this.data.keys())[index] || null; }," +
+        "  get length() { return this.data.size; }" +
+        "};" +
+        "var localStorage = new __Storage(), sessionStorage = new __Storage();" +
+        "var document = new __Element('html', {});" +
+        "document.getElementById = function(id) { return __page.byId[id] || null; };" +
+        "document.createElement = function(tag) { return new __Element(tag, {}); };" +
+        "var window = globalThis;" +
+        "window.location = { href: '' };" +
+        "function CustomEvent(type, init) { this.type = type; this.detail = init && init.detail; }" +
+        "function setTimeout(callback, delay) { __page.timers.push({ callback: callback, delay: delay || 0 }); return __page.timers.length; }" +
+        "function clearTimeout(id) { if (__page.timers[id - 1]) { __page.timers[id - 1].cancelled = true; } }" +
+        "var setInterval = setTimeout, clearInterval = clearTimeout;" +
+        "function __addElement(tag, attrs, text) {" +
+        "  var copy = {};" +
+        "  for (var name in attrs) { copy[name] = attrs[name]; }" +
+        "  var element = document.appendChild(new __Element(tag, copy, text));" +
+        "  if (element.id) { __page.byId[element.id] = element; }" +
+        "}" +
+        "function __newPage(href) {" +
+        "  document.children = []; __page.byId = {}; __page.timers = []; window.location.href = href;" +
+        "}" +
+        "function __byTestId(testId) {" +
+        "  var element = document.querySelector('[data-testid=\"' + testId + '\"]');" +
+        "  if (!element) { throw new Error('No element with data-testid ' + testId); }" +
+        "  return element;" +
+        "}" +
+        "function __runTimers() {" +
+        "  var due = __page.timers.slice().sort(function(a, b) { return a.delay - b.delay; });" +
+        "  __page.timers = [];" +
+        "  due.forEach(function(t) { if (!t.cancelled) { t.callback(); } });" +
+        "}";
+
+    private static final Pattern START_TAG = Pattern.compile("<(\\w+)\\b([^>]*)>");
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w-]+)(?:=\"([^\"]*)\")?");
+
+    private static final Engine ENGINE = Engine.newBuilder()
+        .option("engine.WarnInterpreterOnly", "false")
+        .build();
+    private static final Source SHIM = Source.create("js", DOM_SHIM_SCRIPT);
+    // Wrapping script.js in a function gives every load() fresh top-level
+    // bindings; the returned eval runs code inside that scope
+    private static final Source SCRIPT = Source.create("js",
+        "(function() {\n" + readSite("script.js") + "\n;return function(code) { return eval(code); };\n})");
+    private static final Map<String, List<PageElement>> PAGES = new ConcurrentHashMap<>();
+
+    private final Context context;
+    private final Value loadScript;
+    private Value scope;
+
+    private ScriptSandbox() {
+        context = Context.newBuilder("js").engine(ENGINE).build();
+        context.eval(SHIM);
+        loadScript = context.eval(SCRIPT);
+    }
+
+    public static ScriptSandbox open(String page) {
+        ScriptSandbox sandbox = new ScriptSandbox();
+        sandbox.load(page);
+        return sandbox;
+    }
+
+    // Like navigating to the page: new DOM, timers dropped, storage kept
+    public ScriptSandbox load(String page) {
+        Value bindings = context.getBindings("js");
+        bindings.getMember("__newPage").execute(page);
+        Value addElement = bindings.getMember("__addElement");
+        for (PageElement element : PAGES.computeIfAbsent(page, ScriptSandbox::parsePage)) {
+            addElement.execute(element.tag, ProxyObject.fromMap(element.attributes), element.text);
+        }
+        scope = loadScript.execute();
+        return this;
+    }
+
+    public void clearStorage() {
+        context.eval("js", "localStorage.clear(); sessionStorage.clear();");
+    }
+
+    // ==========================================
+    // PAGE ACCESS
+    // ==========================================
+
+    // Evaluated inside script.js's scope, so its functions and `let` state are visible
+    public Value eval(String code) {
+        return scope.execute(code);
+    }
+
+    public Value call(String function, Object... args) {
+        return eval(function).execute(args);
+    }
+
+    public ScriptSandbox type(String testId, String value) {
+        element(testId).putMember("value", value);
+        return this;
+    }
+
+    public ScriptSandbox check(String testId, boolean checked) {
+        element(testId).putMember("checked", checked);
+        return this;
+    }
+
+    // Runs the element's onclick attribute, as a click in the browser would
+    public ScriptSandbox click(String testId) {
+        Value onclick = element(testId).invokeMember("getAttribute", "onclick");
+        if (onclick.isNull()) {
+            throw new IllegalArgumentException(testId + " has no onclick handler");
+        }
+        eval(onclick.asString());
+        return this;
+    }
+
+    public String text(String testId) {
+        return element(testId).getMember("textContent").asString();
+    }
+
+    public boolean hasClass(String testId, String className) {
+        return element(testId).getMember("classList").invokeMember("contains", className).asBoolean();
+    }
+
+    public String localItem(String key) {
+        Value item = context.eval("js", "localStorage").invokeMember("getItem", key);
+        return item.isNull() ? null : item.asString();
+    }
+
+    public void setLocalItem(String key, String value) {
+        context.eval("js", "localStorage").invokeMember("setItem", key, value);
+    }
+
+    public String sessionItem(String key) {
+        Value item = context.eval("js", "sessionStorage").invokeMember("getItem", key);
+        return item.isNull() ? null : item.asString();
+    }
+
+    // Fires the queued setTimeout callbacks (redirects, notification hide)
+    public void runTimers() {
+        context.getBindings("js").getMember("__runTimers").execute();
+    }
+
+    public String location() {
+        return context.eval("js", "window.location.href").asString();
+    }
+
+    private Value element(String testId) {
+        return context.getBindings("js").getMember("__byTestId").execute(testId);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    // ==========================================
+    // PAGE MODEL
+    // ==========================================
+
+    private static final class PageElement {
+        final String tag;
+        final Map<String, Object> attributes;
+        final String text;
+
+        PageElement(String tag, Map<String, Object> attributes, String text) {
+            this.tag = tag;
+            this.attributes = attributes;
+            this.text = text;
+        }
+    }
+
+    // Start tags with an id or data-testid, plus their text when it has no markup
+    private static List<PageElement> parsePage(String page) {
+        String html = readSite(page);
+        List<PageElement> elements = new ArrayList<>();
+        Matcher tag = START_TAG.matcher(html);
+        while (tag.find()) {
+            Map<String, Object> attributes = new HashMap<>();
+            Matcher attribute = ATTRIBUTE.matcher(tag.group(2));
+            while (attribute.find()) {
+                attributes.put(attribute.group(1), attribute.group(2) == null ? "" : attribute.group(2));
+            }
+            if (!attributes.containsKey("id") && !attributes.containsKey("data-testid")) {
+                continue;
+            }
+            String name = tag.group(1).toLowerCase();
+            int close = html.indexOf("</" + name + ">", tag.end());
+            String inner = close < 0 ? "" : html.substring(tag.end(), close);
+            elements.add(new PageElement(name, attributes, inner.contains("<") ? "" : inner.trim()));
+        }
+        return elements;
+    }
+
+    private static String readSite(String file) {
+        try {
+            return Files.readString(SiteServer.siteRoot().resolve(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Puts the browser straight into a logged-in state by writing the same storage
+// keys that performRegister() and performLogin() would, skipping the UI forms
+// and their redirect delays. Only tests that are about registration or login
+// should still go through the pages themselves.
+public final class SessionSeeder {
+
+    private static final String SEED_SCRIPT =
+        "var s = arguments[0];" +
+        "localStorage.setItem('storedUser', s.username);" +
+        "localStorage.setItem('storedPass', s.password);" +
+        "localStorage.setItem('storedEmail', s.email);" +
+        "if (s.orderHistory) { localStorage.setItem('orderHistory', s.orderHistory); }" +
+        "sessionStorage.setItem('currentUser', s.username);";
+
+    private final String username;
+    private String password = "testpass123";
+    private String email;
+    private String orderHistoryJson;
+
+    private SessionSeeder(String username) {
+        this.username = username;
+        this.email = username + "@test.com";
+    }
+
+    public static SessionSeeder forUser(String username) {
+        return new SessionSeeder(username);
+    }
+
+    public SessionSeeder password(String password) {
+        this.password = password;
+        return this;
+    }
+
+    public SessionSeeder email(String email) {
+        this.email = email;
+        return this;
+    }
+
+    // Raw JSON array in the format checkout() writes, e.g. [{"orderNumber":...}]
+    public SessionSeeder orderHistory(String orderHistoryJson) {
+        this.orderHistoryJson = orderHistoryJson;
+        return this;
+    }
+
+    // Writes the session on the site's origin and opens the dashboard
+    public void seed(WebDriver driver, String baseUrl) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(baseUrl)) {
+            driver.get(baseUrl + "login.html");
+        }
+
+        Map<String, Object> state = new HashMap<>();
+        state.put("username", username);
+        state.put("password", password);
+        state.put("email", email);
+        state.put("orderHistory", orderHistoryJson);
+        ((JavascriptExecutor) driver).executeScript(SEED_SCRIPT, state);
+
+        driver.get(baseUrl + "dashboard.html");
+    }
+}
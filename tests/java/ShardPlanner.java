@@ -0,0 +1,194 @@
+import org.testng.IAlterSuiteListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Splits the suite across machines or JVMs: with -Dshard.total=K and
+// -Dshard.index=0..K-1 each run keeps only its share of the test methods
+// listed in the suite file. Shares are balanced on historical durations from
+// durations.csv next to the suite (override with -Dshard.durations) by
+// longest-processing-time first: slowest method to the least loaded shard.
+// Methods with no history count as the median known duration. Every shard
+// computes the same plan, so no coordination is needed.
+// Every run also writes the durations it measured, setup included, to
+// durations.csv in its report directory; ShardReportMerger combines the
+// shards' files into one that can be copied back as the next history.
+public class ShardPlanner implements IAlterSuiteListener, IInvokedMethodListener, ISuiteListener {
+
+    static final int TOTAL = Integer.getInteger("shard.total", 1);
+    static final int INDEX = Integer.getInteger("shard.index", 0);
+    static final boolean SHARDED = TOTAL > 1;
+
+    private static final Path HISTORY = Paths.get(System.getProperty("shard.durations", TestDurations.FILE_NAME));
+    private static final long DEFAULT_MILLIS = 5_000;
+
+    private static final Map<String, Long> MEASURED = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Long> STARTED = new ThreadLocal<>();
+
+    private final TestStart testStart = new TestStart();
+
+    // ==========================================
+    // PLANNING
+    // ==========================================
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!SHARDED) {
+            return;
+        }
+        if (INDEX < 0 || INDEX >= TOTAL) {
+            throw new IllegalArgumentException("-Dshard.index must be between 0 and " + (TOTAL - 1) + ", was " + INDEX);
+        }
+
+        Map<String, Long> history = TestDurations.read(HISTORY);
+        for (XmlSuite suite : suites) {
+            List<XmlInclude> methods = new ArrayList<>();
+            for (XmlTest test : suite.getTests()) {
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    methods.addAll(includes(xmlClass));
+                }
+            }
+
+            long fallback = median(history);
+            List<Long> costs = methods.stream()
+                .map(include -> history.getOrDefault(include.getName(), fallback))
+                .collect(Collectors.toList());
+            int[] shards = assign(costs, TOTAL);
+
+            long[] loads = new long[TOTAL];
+            Set<XmlInclude> mine = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < methods.size(); i++) {
+                loads[shards[i]] += costs.get(i);
+                if (shards[i] == INDEX) {
+                    mine.add(methods.get(i));
+                }
+            }
+            keepOnly(suite, mine);
+
+            System.out.printf("[shard] %s: shard %d of %d runs %d of %d methods, planned %.1fs (all shards: %s)%n",
+                suite.getName(), INDEX, TOTAL, mine.size(), methods.size(), loads[INDEX] / 1000.0,
+                Arrays.stream(loads).mapToObj(load -> String.format("%.1fs", load / 1000.0))
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    // Longest processing time first; ties go to the lower shard so every shard agrees on the plan
+    static int[] assign(List<Long> costs, int shards) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < costs.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing((Integer i) -> costs.get(i)).reversed().thenComparing(i -> i));
+
+        long[] loads = new long[shards];
+        int[] assignment = new int[costs.size()];
+        for (int job : order) {
+            int lightest = 0;
+            for (int shard = 1; shard < shards; shard++) {
+                if (loads[shard] < loads[lightest]) {
+                    lightest = shard;
+                }
+            }
+            assignment[job] = lightest;
+            loads[lightest] += costs.get(job);
+        }
+        return assignment;
+    }
+
+    // A class listed without <methods> runs all its @Test methods
+    private static List<XmlInclude> includes(XmlClass xmlClass) {
+        if (xmlClass.getIncludedMethods().isEmpty()) {
+            List<XmlInclude> all = new ArrayList<>();
+            for (Method method : xmlClass.getSupportClass().getMethods()) {
+                if (method.isAnnotationPresent(Test.class) && !xmlClass.getExcludedMethods().contains(method.getName())) {
+                    all.add(new XmlInclude(method.getName()));
+                }
+            }
+            all.sort(Comparator.comparing(XmlInclude::getName));
+            xmlClass.setIncludedMethods(all);
+        }
+        return xmlClass.getIncludedMethods();
+    }
+
+    // Drops other shards' methods, and classes and tests left with none (an
+    // empty <methods> would otherwise mean "run everything")
+    private static void keepOnly(XmlSuite suite, Set<XmlInclude> mine) {
+        List<XmlTest> emptyTests = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            List<XmlClass> emptyClasses = new ArrayList<>();
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                List<XmlInclude> kept = xmlClass.getIncludedMethods().stream()
+                    .filter(mine::contains)
+                    .collect(Collectors.toList());
+                xmlClass.setIncludedMethods(kept);
+                if (kept.isEmpty()) {
+                    emptyClasses.add(xmlClass);
+                }
+            }
+            test.getXmlClasses().removeAll(emptyClasses);
+            if (test.getXmlClasses().isEmpty()) {
+                emptyTests.add(test);
+            }
+        }
+        suite.getTests().removeAll(emptyTests);
+    }
+
+    // ==========================================
+    // DURATIONS
+    // ==========================================
+
+    // A test's time runs from its first @BeforeMethod, since a shard pays for
+    // the setup (browser context, checkpoint) as much as for the test itself
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (testStart.begins(method)) {
+            STARTED.set(System.nanoTime());
+        }
+    }
+
+    // A skipped test (a cached pass, say) says nothing about how long it takes
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        testStart.finished(method, testResult);
+        Long started = STARTED.get();
+        if (method.isTestMethod() && started != null && testResult.getStatus() != ITestResult.SKIP) {
+            MEASURED.put(method.getTestMethod().getMethodName(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!MEASURED.isEmpty()) {
+            TestDurations.write(StepTimings.reportDir().resolve(TestDurations.FILE_NAME), MEASURED);
+        }
+    }
+
+    private static long median(Map<String, Long> history) {
+        if (history.isEmpty()) {
+            return DEFAULT_MILLIS;
+        }
+        List<Long> sorted = history.values().stream().sorted().collect(Collectors.toList());
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,116 @@
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Combines the reports of a sharded run into one directory:
+//   java -cp target/test-classes ShardReportMerger <out-dir> <shard-dir>...
+// where each shard directory holds what one shard produced: its
+// testng-results.xml (from target/surefire-reports) and the files in its
+// target/timings/shard-<n>. The merged testng-results.xml has every shard's
+// suites under one set of totals; the CSV reports are concatenated with a
+// leading shard column, and durations.csv is merged into the history the
+// next sharded run can be planned from (copy it to tests/java/durations.csv).
+public final class ShardReportMerger {
+
+    private static final String RESULTS = "testng-results.xml";
+    private static final String[] TOTALS = {"total", "passed", "failed", "skipped", "ignored"};
+    private static final String[] CSV_REPORTS = {"timings.csv", "perf-metrics.csv"};
+
+    private ShardReportMerger() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: ShardReportMerger <out-dir> <shard-dir>...");
+            System.exit(2);
+        }
+        Path out = Paths.get(args[0]);
+        Files.createDirectories(out);
+
+        Document merged = null;
+        Map<String, Long> durations = new HashMap<>();
+        Map<String, StringBuilder> csvs = new HashMap<>();
+
+        for (int i = 1; i < args.length; i++) {
+            Path shard = Paths.get(args[i]);
+            String shardName = shard.getFileName().toString();
+
+            Path results = shard.resolve(RESULTS);
+            if (Files.exists(results)) {
+                Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(results.toFile());
+                merged = merged == null ? document : mergeResults(merged, document);
+            }
+
+            durations.putAll(TestDurations.read(shard.resolve(TestDurations.FILE_NAME)));
+
+            for (String report : CSV_REPORTS) {
+                Path csv = shard.resolve(report);
+                if (Files.exists(csv)) {
+                    appendCsv(csvs, report, shardName, Files.readAllLines(csv, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        if (merged != null) {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(merged), new StreamResult(out.resolve(RESULTS).toFile()));
+        }
+        if (!durations.isEmpty()) {
+            TestDurations.write(out.resolve(TestDurations.FILE_NAME), durations);
+        }
+        for (Map.Entry<String, StringBuilder> csv : csvs.entrySet()) {
+            Files.writeString(out.resolve(csv.getKey()), csv.getValue(), StandardCharsets.UTF_8);
+        }
+        System.out.println("Merged " + (args.length - 1) + " shard(s) into " + out.toAbsolutePath());
+    }
+
+    // Moves the shard's <suite> elements under the merged root and adds up the totals
+    private static Document mergeResults(Document merged, Document shard) {
+        Element root = merged.getDocumentElement();
+        Element shardRoot = shard.getDocumentElement();
+        for (String total : TOTALS) {
+            long sum = parse(root.getAttribute(total)) + parse(shardRoot.getAttribute(total));
+            root.setAttribute(total, Long.toString(sum));
+        }
+        NodeList suites = shardRoot.getElementsByTagName("suite");
+        for (int i = 0; i < suites.getLength(); i++) {
+            Node suite = suites.item(i);
+            if (suite.getParentNode() == shardRoot) {
+                root.appendChild(merged.importNode(suite, true));
+            }
+        }
+        return merged;
+    }
+
+    private static void appendCsv(Map<String, StringBuilder> csvs, String report, String shardName, List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = csvs.computeIfAbsent(report, name -> new StringBuilder("shard,").append(lines.get(0)).append('\n'));
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.isEmpty()) {
+                csv.append(shardName).append(',').append(line).append('\n');
+            }
+        }
+    }
+
+    private static long parse(String value) {
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+}
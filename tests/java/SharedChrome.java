@@ -0,0 +1,168 @@
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The one Chrome that DriverPool workers share when -Dbrowser.isolation=context
+// (the default). Each test gets its own browser context (CDP
+// Target.createBrowserContext): separate cookies, cache, localStorage and
+// sessionStorage, like an incognito window, for the cost of a tab instead of
+// a whole browser. LoadDriver's virtual users share it the same way, one
+// context per journey. Workers and users attach their own ChromeDriver
+// session through the browser's debugger address; creating and disposing contexts are browser-wide
+// commands, so they go over the browser's own DevTools WebSocket.
+final class SharedChrome {
+
+    private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(10);
+    private static final Json JSON = new Json();
+
+    private static SharedChrome instance;
+
+    private final Path profileDir;
+    private final ChromeDriver host;
+    private final String debuggerAddress;
+    private final WebSocket socket;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+
+    private SharedChrome() {
+        profileDir = DriverPool.createProfile();
+        host = DriverPool.launch(profileDir);
+        debuggerAddress = debuggerAddress(host.getCapabilities());
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            HttpResponse<String> version = http.send(
+                HttpRequest.newBuilder(URI.create("http://" + debuggerAddress + "/json/version")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            Map<String, Object> endpoints = JSON.toType(version.body(), Json.MAP_TYPE);
+            socket = http.newWebSocketBuilder()
+                .buildAsync(URI.create((String) endpoints.get("webSocketDebuggerUrl")), new Responses())
+                .get(COMMAND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            host.quit();
+            DriverPool.deleteProfile(profileDir);
+            throw new IllegalStateException("Could not connect to the shared browser at " + debuggerAddress, e);
+        }
+    }
+
+    static synchronized SharedChrome get() {
+        if (instance == null) {
+            instance = new SharedChrome();
+        }
+        return instance;
+    }
+
+    static synchronized void shutdown() {
+        if (instance != null) {
+            try {
+                instance.socket.abort();
+                instance.host.quit();
+            } finally {
+                DriverPool.deleteProfile(instance.profileDir);
+                instance = null;
+            }
+        }
+    }
+
+    String debuggerAddress() {
+        return debuggerAddress;
+    }
+
+    // ==========================================
+    // BROWSER CONTEXTS
+    // ==========================================
+
+    String createContext() {
+        return (String) send("Target.createBrowserContext", Map.of("disposeOnDetach", false)).get("browserContextId");
+    }
+
+    // A blank tab in the context; its target id is also its WebDriver window handle
+    String createPage(String contextId) {
+        return (String) send("Target.createTarget", Map.of("url", "about:blank", "browserContextId", contextId))
+            .get("targetId");
+    }
+
+    // Closes the context's tabs and throws away its storage
+    void disposeContext(String contextId) {
+        send("Target.disposeBrowserContext", Map.of("browserContextId", contextId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> send(String method, Map<String, Object> params) {
+        long id = nextId.getAndIncrement();
+        CompletableFuture<Map<String, Object>> response = new CompletableFuture<>();
+        pending.put(id, response);
+        Map<String, Object> command = new HashMap<>();
+        command.put("id", id);
+        command.put("method", method);
+        command.put("params", params);
+        try {
+            synchronized (socket) {
+                socket.sendText(JSON.toJson(command), true).get(COMMAND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            Map<String, Object> message = response.get(COMMAND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (message.containsKey("error")) {
+                throw new IllegalStateException(method + " failed: " + message.get("error"));
+            }
+            Object result = message.get("result");
+            return result == null ? Map.of() : (Map<String, Object>) result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(method + " interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException(method + " got no answer from the shared browser", e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String debuggerAddress(Capabilities capabilities) {
+        Object chromeOptions = capabilities.getCapability("goog:chromeOptions");
+        Object address = chromeOptions instanceof Map ? ((Map<String, Object>) chromeOptions).get("debuggerAddress") : null;
+        if (address == null) {
+            throw new IllegalStateException("ChromeDriver did not report a debugger address: " + capabilities);
+        }
+        return address.toString();
+    }
+
+    // Matches answers to commands by id; events are ignored
+    private final class Responses implements WebSocket.Listener {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                Map<String, Object> message = JSON.toType(partial.toString(), Json.MAP_TYPE);
+                partial.setLength(0);
+                Object id = message.get("id");
+                if (id instanceof Number) {
+                    CompletableFuture<Map<String, Object>> response = pending.get(((Number) id).longValue());
+                    if (response != null) {
+                        response.complete(message);
+                    }
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+// Serves the bakery pages from the repository root over HTTP on an ephemeral
+// loopback port. Every browser worker gets its own server, and therefore its
+// own origin, so localStorage stays isolated without restarting browsers.
+// File contents are read and gzipped once and shared by all servers.
+public final class SiteServer {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "html", "text/html; charset=utf-8",
+        "js", "application/javascript; charset=utf-8",
+        "css", "text/css; charset=utf-8"
+    );
+
+    // Script-free page BrowserReset can land on to reach the origin cheaply
+    private static final Resource BLANK_PAGE = new Resource(
+        "text/html; charset=utf-8", "<!DOCTYPE html><title>blank</title>".getBytes(StandardCharsets.UTF_8), null);
+
+    private static final Path SITE_ROOT = locateSiteRoot();
+    private static final Map<String, Resource> CACHE = new ConcurrentHashMap<>();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private SiteServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static SiteServer start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "site-server-" + server.getAddress().getPort());
+                thread.setDaemon(true);
+                return thread;
+            });
+            SiteServer siteServer = new SiteServer(server, executor);
+            server.createContext("/", siteServer::handle);
+            server.setExecutor(executor);
+            server.start();
+            return siteServer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the site server", e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // REQUEST HANDLING
+    // ==========================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Resource resource = resource("/".equals(path) ? "/login.html" : path);
+            if (resource == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = resource.gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+            byte[] body = gzip ? resource.gzipped : resource.raw;
+
+            exchange.getResponseHeaders().set("Content-Type", resource.contentType);
+            if (gzip) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Resource resource(String path) {
+        if (("/" + BrowserReset.BLANK_PAGE).equals(path)) {
+            return BLANK_PAGE;
+        }
+        Resource cached = CACHE.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        String extension = path.substring(path.lastIndexOf('.') + 1);
+        String contentType = CONTENT_TYPES.get(extension);
+        Path file = SITE_ROOT.resolve(path.substring(1)).normalize();
+        if (contentType == null || !file.startsWith(SITE_ROOT) || !Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            byte[] raw = Files.readAllBytes(file);
+            Resource resource = new Resource(contentType, raw, gzip(raw));
+            CACHE.putIfAbsent(path, resource);
+            return resource;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(raw);
+        }
+        // Tiny files can grow when compressed; serve those as-is
+        return buffer.size() < raw.length ? buffer.toByteArray() : null;
+    }
+
+    static Path siteRoot() {
+        return SITE_ROOT;
+    }
+
+    // The pages live at the repository root, two levels above tests/java
+    private static Path locateSiteRoot() {
+        String configured = System.getProperty("site.root");
+        if (configured != null) {
+            return Paths.get(configured).toAbsolutePath().normalize();
+        }
+        Path dir = Paths.get("").toAbsolutePath();
+        while (dir != null && !Files.exists(dir.resolve("login.html"))) {
+            dir = dir.getParent();
+        }
+        if (dir == null) {
+            throw new IllegalStateException("Could not find login.html above " + Paths.get("").toAbsolutePath()
+                + "; set -Dsite.root to the bakery site directory");
+        }
+        return dir;
+    }
+
+    private static final class Resource {
+
+        final String contentType;
+        final byte[] raw;
+        final byte[] gzipped;
+
+        Resource(String contentType, byte[] raw, byte[] gzipped) {
+            this.contentType = contentType;
+            this.raw = raw;
+            this.gzipped = gzipped;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Collects how long each WebDriver step took, tagged with the running test
+// method and the data-testid involved, and writes p50/p95/max summaries per
+// test and per step once the suite finishes. Disable with -Dtimings=false.
+public final class StepTimings {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("timings", "true"));
+
+    private static final ThreadLocal<String> CURRENT_TEST = ThreadLocal.withInitial(() -> "(none)");
+    private static final Queue<Sample> SAMPLES = new ConcurrentLinkedQueue<>();
+
+    private StepTimings() {
+    }
+
+    public static void startTest(String testName) {
+        CURRENT_TEST.set(testName);
+    }
+
+    public static String currentTest() {
+        return CURRENT_TEST.get();
+    }
+
+    public static void record(String step, String testId, long nanos) {
+        SAMPLES.add(new Sample(CURRENT_TEST.get(), step, testId == null ? "" : testId, nanos));
+    }
+
+    public static List<Sample> samples() {
+        return new ArrayList<>(SAMPLES);
+    }
+
+    // Where this run's reports go: -Dtimings.dir, else target/timings, with a
+    // shard-<index> subdirectory when the suite is sharded
+    public static Path reportDir() {
+        String configured = System.getProperty("timings.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        Path dir = Paths.get("target", "timings");
+        return ShardPlanner.SHARDED ? dir.resolve("shard-" + ShardPlanner.INDEX) : dir;
+    }
+
+    // ==========================================
+    // REPORT
+    // ==========================================
+
+    public static void writeReport(Path dir) {
+        List<Sample> samples = samples();
+        if (samples.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> perTest = summarise(samples, sample -> sample.test, "test");
+        List<Map<String, Object>> perStep = summarise(samples, sample -> sample.step + "|" + sample.testId, "step");
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tests", perTest);
+        report.put("steps", perStep);
+
+        StringBuilder csv = new StringBuilder("scope,test,step,testId,count,totalMs,p50Ms,p95Ms,maxMs\n");
+        for (Map<String, Object> row : perTest) {
+            appendCsv(csv, "test", row);
+        }
+        for (Map<String, Object> row : perStep) {
+            appendCsv(csv, "step", row);
+        }
+
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("timings.json"), new Json().toJson(report), StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve("timings.csv"), csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write timing report to " + dir, e);
+        }
+    }
+
+    private static List<Map<String, Object>> summarise(List<Sample> samples, Function<Sample, String> key, String scope) {
+        Map<String, List<Sample>> groups = samples.stream()
+            .collect(Collectors.groupingBy(key, TreeMap::new, Collectors.toList()));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (List<Sample> group : groups.values()) {
+            Sample first = group.get(0);
+            List<Long> nanos = group.stream().map(sample -> sample.nanos).sorted().collect(Collectors.toList());
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("test", "test".equals(scope) ? first.test : "");
+            row.put("step", "step".equals(scope) ? first.step : "");
+            row.put("testId", "step".equals(scope) ? first.testId : "");
+            row.put("count", nanos.size());
+            row.put("totalMs", millis(nanos.stream().mapToLong(Long::longValue).sum()));
+            row.put("p50Ms", millis(percentile(nanos, 50)));
+            row.put("p95Ms", millis(percentile(nanos, 95)));
+            row.put("maxMs", millis(nanos.get(nanos.size() - 1)));
+            rows.add(row);
+        }
+        // Slowest first, so the report opens on what to fix
+        rows.sort(Collections.reverseOrder((a, b) -> Double.compare((double) a.get("totalMs"), (double) b.get("totalMs"))));
+        return rows;
+    }
+
+    static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static void appendCsv(StringBuilder csv, String scope, Map<String, Object> row) {
+        csv.append(scope).append(',')
+            .append(row.get("test")).append(',')
+            .append(row.get("step")).append(',')
+            .append(row.get("testId")).append(',')
+            .append(row.get("count")).append(',')
+            .append(row.get("totalMs")).append(',')
+            .append(row.get("p50Ms")).append(',')
+            .append(row.get("p95Ms")).append(',')
+            .append(row.get("maxMs")).append('\n');
+    }
+
+    public static final class Sample {
+
+        final String test;
+        final String step;
+        final String testId;
+        final long nanos;
+
+        Sample(String test, String step, String testId, long nanos) {
+            this.test = test;
+            this.step = step;
+            this.testId = testId;
+            this.nanos = nanos;
+        }
+    }
+}
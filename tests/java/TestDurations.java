@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Per-method wall-clock durations in milliseconds, as written by ShardPlanner
+// after every run and read back to plan the next sharded one
+public final class TestDurations {
+
+    static final String FILE_NAME = "durations.csv";
+
+    private TestDurations() {
+    }
+
+    // method,millis per line after a header; a missing file is an empty history
+    static Map<String, Long> read(Path file) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.exists(file)) {
+            return durations;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(",");
+                if (fields.length == 2 && fields[1].trim().matches("\\d+")) {
+                    durations.put(fields[0].trim(), Long.parseLong(fields[1].trim()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read test durations from " + file, e);
+        }
+        return durations;
+    }
+
+    static void write(Path file, Map<String, Long> durations) {
+        StringBuilder csv = new StringBuilder("method,millis\n");
+        new TreeMap<>(durations).forEach((method, millis) -> csv.append(method).append(',').append(millis).append('\n'));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, csv, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write test durations to " + file, e);
+        }
+    }
+}
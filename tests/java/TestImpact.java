@@ -0,0 +1,201 @@
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.TypeToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Test impact analysis for the web assets. With -Dimpact.record=true every
+// test's precise JS coverage is recorded and saved to impact-map.json
+// (override with -Dimpact.map) as the set of "units" it ran: script.js
+// functions as "script.js#applyPromo", code outside any function as
+// "script.js#(top-level)", and the pages it loaded as "dashboard.html".
+// With -Dimpact.since=<git ref> only tests whose units overlap what changed
+// since that ref are run; tests missing from the map always run, and a
+// stylesheet change or an unreadable diff runs everything.
+public final class TestImpact {
+
+    static final boolean RECORDING = Boolean.getBoolean("impact.record");
+    static final String SINCE = System.getProperty("impact.since");
+    static final String TOP_LEVEL = "(top-level)";
+
+    private static final Path MAP_FILE = Paths.get(System.getProperty("impact.map", "impact-map.json"));
+    private static final Type MAP_TYPE = new TypeToken<Map<String, List<String>>>() {}.getType();
+
+    // A top-level function starts with "function name(" in column 0 and ends at the next "}" in column 0
+    private static final Pattern FUNCTION_START = Pattern.compile("^(?:async\\s+)?function\\s+(\\w+)\\s*\\(");
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+
+    private TestImpact() {
+    }
+
+    // ==========================================
+    // IMPACT MAP
+    // ==========================================
+
+    public static Map<String, Set<String>> loadMap() {
+        Map<String, Set<String>> map = new TreeMap<>();
+        if (!Files.exists(MAP_FILE)) {
+            return map;
+        }
+        try {
+            Map<String, List<String>> raw = new Json().toType(Files.readString(MAP_FILE, StandardCharsets.UTF_8), MAP_TYPE);
+            raw.forEach((test, units) -> map.put(test, new TreeSet<>(units)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read impact map " + MAP_FILE, e);
+        }
+        return map;
+    }
+
+    // Replaces the entries of the tests that were just recorded, keeping the rest
+    public static void saveMap(Map<String, Set<String>> recorded) {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> map = loadMap();
+        map.putAll(recorded);
+        try {
+            Files.writeString(MAP_FILE, new Json().toJson(map), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write impact map " + MAP_FILE, e);
+        }
+    }
+
+    // True when a test that ran these units is affected by the changes. A
+    // changed file with no unit breakdown (an HTML page, a deleted script)
+    // affects every unit in it.
+    public static boolean affected(Set<String> units, Set<String> changed) {
+        for (String change : changed) {
+            if (units.contains(change)) {
+                return true;
+            }
+            if (change.indexOf('#') < 0 && units.stream().anyMatch(unit -> unit.startsWith(change + "#"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==========================================
+    // SCRIPT UNITS
+    // ==========================================
+
+    // Unit name for every line of a script, index 0 being line 1
+    static String[] unitsByLine(String source) {
+        String[] lines = source.split("\n", -1);
+        String[] units = new String[lines.length];
+        String current = null;
+        for (int i = 0; i < lines.length; i++) {
+            Matcher start = FUNCTION_START.matcher(lines[i]);
+            if (current == null && start.find()) {
+                current = start.group(1);
+            }
+            units[i] = current != null ? current : TOP_LEVEL;
+            if (current != null && lines[i].startsWith("}")) {
+                current = null;
+            }
+        }
+        return units;
+    }
+
+    // Unit containing a character offset, as reported by Profiler.takePreciseCoverage
+    static String unitAt(String source, String[] units, int offset) {
+        int line = 0;
+        for (int i = 0; i < Math.min(offset, source.length()); i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return units[Math.min(line, units.length - 1)];
+    }
+
+    static String readAsset(String file) {
+        try {
+            return Files.readString(SiteServer.siteRoot().resolve(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ==========================================
+    // CHANGES SINCE -Dimpact.since
+    // ==========================================
+
+    // Units touched by the diff against SINCE, or null when everything should run
+    public static Set<String> changedUnits() {
+        List<String> diff;
+        try {
+            diff = git("diff", "--relative", "-U0", SINCE, "--", "*.js", "*.html", "*.css");
+        } catch (IOException e) {
+            return null;
+        }
+
+        Set<String> changed = new TreeSet<>();
+        String file = null;
+        String[] units = null;
+        for (String line : diff) {
+            if (line.startsWith("--- a/")) {
+                file = line.substring(6);
+            } else if (line.startsWith("+++ ")) {
+                // A deleted file keeps the name from the "---" line
+                if (line.startsWith("+++ b/")) {
+                    file = line.substring(6);
+                }
+                if (file.endsWith(".css")) {
+                    return null;
+                }
+                String source = file.endsWith(".js") ? readAsset(file) : null;
+                units = source != null ? unitsByLine(source) : null;
+                if (units == null) {
+                    changed.add(file);
+                }
+            } else if (units != null) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int first = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) != null ? Integer.parseInt(hunk.group(2)) : 1;
+                    // A pure deletion (count 0) sits between line "first" and the next one
+                    int last = count == 0 ? first + 1 : first + count - 1;
+                    for (int l = Math.max(1, first); l <= Math.min(last, units.length); l++) {
+                        changed.add(file + "#" + units[l - 1]);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static List<String> git(String... args) throws IOException {
+        List<String> command = new ArrayList<>(Collections.singletonList("git"));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command)
+            .directory(SiteServer.siteRoot().toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        List<String> lines = Arrays.asList(new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for git", e);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,89 @@
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// TestNG side of TestImpact. With -Dimpact.since it drops the tests the web
+// asset changes cannot reach before each <test> block runs; with
+// -Dimpact.record it collects every test's coverage units and saves the
+// impact map when the suite finishes. Does nothing when neither is set.
+public class TestImpactListener implements IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private static final Map<String, Set<String>> RECORDED = new ConcurrentHashMap<>();
+
+    private final TestStart testStart = new TestStart();
+
+    // Computed once per run; null means run everything
+    private static volatile Set<String> changed;
+    private static volatile boolean changedLoaded;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (TestImpact.SINCE == null) {
+            return methods;
+        }
+        Set<String> changedUnits = changedUnits();
+        if (changedUnits == null) {
+            System.out.println("[impact] " + context.getName() + ": running all " + methods.size()
+                + " tests (stylesheet changed or git diff unavailable)");
+            return methods;
+        }
+
+        Map<String, Set<String>> map = TestImpact.loadMap();
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            Set<String> units = map.get(method.getMethod().getMethodName());
+            if (units == null || TestImpact.affected(units, changedUnits)) {
+                selected.add(method);
+            }
+        }
+        System.out.println("[impact] " + context.getName() + ": running " + selected.size() + " of "
+            + methods.size() + " tests affected by " + changedUnits);
+        return selected;
+    }
+
+    private static synchronized Set<String> changedUnits() {
+        if (!changedLoaded) {
+            changed = TestImpact.changedUnits();
+            changedLoaded = true;
+        }
+        return changed;
+    }
+
+    // Recording starts with the test's @BeforeMethod, so what its setup runs
+    // (a checkpoint's adds and promo codes) counts toward the test
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ImpactRecorder recorder = ImpactRecorder.current();
+        if (testStart.begins(method) && recorder != null) {
+            recorder.startTest();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        testStart.finished(method, testResult);
+        ImpactRecorder recorder = ImpactRecorder.current();
+        // A skipped test (a cached pass, say) ran nothing worth recording
+        if (method.isTestMethod() && recorder != null && testResult.getStatus() != ITestResult.SKIP) {
+            RECORDED.put(method.getTestMethod().getMethodName(), recorder.finishTest());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (TestImpact.RECORDING) {
+            TestImpact.saveMap(RECORDED);
+        }
+    }
+}
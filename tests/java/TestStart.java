@@ -0,0 +1,27 @@
+import org.testng.IInvokedMethod;
+import org.testng.ITestResult;
+
+// Where a test begins on the calling thread, for listeners that keep per-test
+// state: at the first of its @BeforeMethod configuration methods, or at the
+// test method itself when it has none. Page loads, checkpoints and the like
+// done in setup then count toward the test they prepare. Each listener keeps
+// its own instance, since asking moves the state along.
+final class TestStart {
+
+    private final ThreadLocal<Boolean> inSetup = ThreadLocal.withInitial(() -> false);
+
+    // True for the invocation that begins a test
+    boolean begins(IInvokedMethod method) {
+        boolean setup = method.getTestMethod().isBeforeMethodConfiguration();
+        boolean begins = (setup || method.isTestMethod()) && !inSetup.get();
+        inSetup.set(setup);
+        return begins;
+    }
+
+    // A failed setup skips its test, so the next setup begins another one
+    void finished(IInvokedMethod method, ITestResult testResult) {
+        if (method.getTestMethod().isBeforeMethodConfiguration() && testResult.getStatus() != ITestResult.SUCCESS) {
+            inSetup.set(false);
+        }
+    }
+}
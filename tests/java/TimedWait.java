@@ -0,0 +1,23 @@
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// EventWait that reports the time spent in each until() to StepTimings,
+// tagged with the data-testid named in the ExpectedCondition
+public class TimedWait extends EventWait {
+
+    public TimedWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        long start = System.nanoTime();
+        try {
+            return super.until(isTrue);
+        } finally {
+            StepTimings.record("until", TimingListener.testIdOf(isTrue), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Times get, findElement, click and sendKeys on the decorated driver and
+// hands the durations to StepTimings. Elements remember the data-testid they
+// were found by, so clicks and keystrokes are tagged without extra wire calls.
+public class TimingListener implements WebDriverListener {
+
+    private static final Set<String> TIMED_CALLS = Set.of("get", "findElement", "click", "sendKeys");
+    private static final Pattern TEST_ID = Pattern.compile("data-testid='([^']+)'");
+
+    private final ThreadLocal<Deque<Long>> starts = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<WebElement, String> elementTestIds = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (TIMED_CALLS.contains(method.getName())) {
+            starts.get().push(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        if (!TIMED_CALLS.contains(method.getName())) {
+            return;
+        }
+        String testId = testIdFor(target, args);
+        if (result instanceof WebElement && testId != null) {
+            elementTestIds.put((WebElement) result, testId);
+        }
+        finish(method.getName(), testId);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // Failed lookups inside a wait still cost time, so they are recorded too
+        if (TIMED_CALLS.contains(method.getName())) {
+            finish(method.getName(), testIdFor(target, args));
+        }
+    }
+
+    private void finish(String step, String testId) {
+        Long start = starts.get().poll();
+        if (start != null) {
+            StepTimings.record(step, testId, System.nanoTime() - start);
+        }
+    }
+
+    private String testIdFor(Object target, Object[] args) {
+        if (args != null && args.length > 0 && args[0] instanceof By) {
+            return testIdOf(args[0]);
+        }
+        if (target instanceof WebElement) {
+            return elementTestIds.get(target);
+        }
+        return null;
+    }
+
+    static String testIdOf(Object locatorOrCondition) {
+        Matcher matcher = TEST_ID.matcher(String.valueOf(locatorOrCondition));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,29 @@
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+// Tags driver timings with the method being run and writes timings.json and
+// timings.csv (to StepTimings.reportDir(), target/timings by default) at the end
+// of the suite
+public class TimingReportListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        String name = method.getTestMethod().getMethodName();
+        StepTimings.startTest(method.isTestMethod() ? name : "config:" + name);
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        StepTimings.startTest("(none)");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (StepTimings.ENABLED) {
+            StepTimings.writeReport(StepTimings.reportDir());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.testng.Assert;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The complete user journey as a list of named steps: register, login,
+// search, quick-add, custom order, promo, checkout, order history, logout.
+// testCompleteUserJourney runs it once; LoadDriver runs it over and over for
+// many virtual users and times each step. Steps check what a user would see
+// and throw when it's wrong, so a broken step counts as an error under load
+// and fails the functional test.
+public final class UserJourney {
+
+    // Fixed delays in script.js before it redirects; BakeryE2ETest uses them too
+    static final long REGISTER_REDIRECT_MS = 1500;
+    static final long LOGIN_REDIRECT_MS = 1000;
+    static final long LOGOUT_REDIRECT_MS = 500;
+
+    private final WebDriver driver;
+    private final WebDriverWait wait;
+    private final String baseUrl;
+    private final String username;
+    private final String email;
+    private final String password = "e2epass123";
+    private final Map<String, Runnable> steps = new LinkedHashMap<>();
+
+    private DashboardPage dashboard;
+
+    public UserJourney(WebDriver driver, WebDriverWait wait, String baseUrl, String username) {
+        this.driver = driver;
+        this.wait = wait;
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.email = username + "@test.com";
+
+        steps.put("register", this::register);
+        steps.put("login", this::login);
+        steps.put("search", this::search);
+        steps.put("quick-add", this::quickAdd);
+        steps.put("custom-order", this::customOrder);
+        steps.put("promo", this::promo);
+        steps.put("checkout", this::checkout);
+        steps.put("order-history", this::orderHistory);
+        steps.put("logout", this::logout);
+    }
+
+    public List<String> steps() {
+        return new ArrayList<>(steps.keySet());
+    }
+
+    public void run(String step) {
+        steps.get(step).run();
+    }
+
+    public void runAll() {
+        for (Runnable step : steps.values()) {
+            step.run();
+        }
+    }
+
+    // ==========================================
+    // STEPS
+    // ==========================================
+
+    private void register() {
+        new RegisterPage(driver, wait, baseUrl).open().register(username, email, password);
+        VirtualClock.advance(driver, REGISTER_REDIRECT_MS);
+        wait.until(ExpectedConditions.urlContains("login.html"));
+    }
+
+    private void login() {
+        new LoginPage(driver, wait, baseUrl).loginAs(username, password);
+        VirtualClock.advance(driver, LOGIN_REDIRECT_MS);
+        wait.until(ExpectedConditions.urlContains("dashboard.html"));
+        dashboard = new DashboardPage(driver, wait, baseUrl);
+    }
+
+    private void search() {
+        dashboard.search("Coffee");
+        Assert.assertFalse(dashboard.isMenuItemHidden(5), "Hot Coffee should match the search");
+        dashboard.clearSearch();
+    }
+
+    private void quickAdd() {
+        dashboard.quickAdd(1); // Chocolate Donut
+        dashboard.quickAdd(5); // Hot Coffee
+    }
+
+    private void customOrder() {
+        dashboard.selectItem("Strawberry Tart - $4.00");
+        dashboard.increaseQuantity();
+        dashboard.addToCart();
+    }
+
+    private void promo() {
+        dashboard.applyPromo("SWEET10");
+        Assert.assertFalse(dashboard.cartCount().equals("0 items"), "Cart should not be empty");
+    }
+
+    private void checkout() {
+        dashboard.checkout();
+        Assert.assertTrue(dashboard.isCheckoutModalDisplayed(), "Checkout should confirm the order");
+        dashboard.closeCheckoutModal();
+    }
+
+    private void orderHistory() {
+        dashboard.openOrderHistory();
+        Assert.assertTrue(dashboard.isOrderDisplayed(1), "The new order should be in the history");
+        dashboard.closeOrderHistory();
+    }
+
+    private void logout() {
+        dashboard.logout();
+        VirtualClock.advance(driver, LOGOUT_REDIRECT_MS);
+        wait.until(ExpectedConditions.urlContains("login.html"));
+        Assert.assertTrue(driver.getCurrentUrl().contains("login.html"), "Logout should return to login");
+    }
+}
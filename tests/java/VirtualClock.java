@@ -0,0 +1,102 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Map;
+
+// Test-mode clock installed into every page before script.js runs (through
+// CDP Page.addScriptToEvaluateOnNewDocument). setTimeout, setInterval and
+// Date keep running in real time, so nothing changes for a test that ignores
+// the clock, but advance(ms) jumps virtual time forward and fires every timer
+// that has become due, in order. Tests use it to skip the app's fixed delays:
+// the 1500 ms registration and 1000 ms login redirects, the 500 ms logout
+// redirect and the 3000 ms notification auto-hide.
+// -Dclock=real leaves the page's timers alone.
+public final class VirtualClock {
+
+    static final boolean ENABLED = !"real".equalsIgnoreCase(System.getProperty("clock", "virtual"));
+
+    private static final String CLOCK_SCRIPT =
+        "(function() {" +
+        "  if (window.__virtualClock) { return; }" +
+        "  var realSetTimeout = window.setTimeout.bind(window);" +
+        "  var realClearTimeout = window.clearTimeout.bind(window);" +
+        "  var RealDate = window.Date;" +
+        "  var offset = 0, nextId = 1, timers = new Map();" +
+        "  function now() { return RealDate.now() + offset; }" +
+        "  function schedule(timer) {" +
+        "    timer.handle = realSetTimeout(function() { fire(timer); }, Math.max(0, timer.due - now()));" +
+        "  }" +
+        "  function fire(timer) {" +
+        "    if (!timers.has(timer.id)) { return; }" +
+        "    if (timer.repeat) { timer.due += Math.max(1, timer.delay); schedule(timer); }" +
+        "    else { timers.delete(timer.id); }" +
+        "    if (typeof timer.callback === 'function') { timer.callback.apply(window, timer.args); }" +
+        "    else { (0, eval)(String(timer.callback)); }" +
+        "  }" +
+        "  function add(callback, delay, args, repeat) {" +
+        "    var timer = { id: nextId++, callback: callback, delay: Math.max(0, Number(delay) || 0)," +
+        "                  args: args, repeat: repeat };" +
+        "    timer.due = now() + timer.delay;" +
+        "    timers.set(timer.id, timer);" +
+        "    schedule(timer);" +
+        "    return timer.id;" +
+        "  }" +
+        "  function cancel(id) {" +
+        "    var timer = timers.get(id);" +
+        "    if (timer) { realClearTimeout(timer.handle); timers.delete(id); }" +
+        "  }" +
+        "  window.setTimeout = function(callback, delay) {" +
+        "    return add(callback, delay, Array.prototype.slice.call(arguments, 2), false);" +
+        "  };" +
+        "  window.setInterval = function(callback, delay) {" +
+        "    return add(callback, delay, Array.prototype.slice.call(arguments, 2), true);" +
+        "  };" +
+        "  window.clearTimeout = cancel;" +
+        "  window.clearInterval = cancel;" +
+        "  class VirtualDate extends RealDate {" +
+        "    constructor() {" +
+        "      if (arguments.length === 0) { super(now()); } else { super(...arguments); }" +
+        "    }" +
+        "    static now() { return now(); }" +
+        "  }" +
+        "  window.Date = VirtualDate;" +
+        "  window.__virtualClock = {" +
+        "    advance: function(ms) {" +
+        "      offset += ms;" +
+        "      while (true) {" +
+        "        var next = null;" +
+        "        timers.forEach(function(timer) {" +
+        "          if (timer.due <= now() && (!next || timer.due < next.due)) { next = timer; }" +
+        "        });" +
+        "        if (!next) { break; }" +
+        "        realClearTimeout(next.handle);" +
+        "        fire(next);" +
+        "      }" +
+        "      timers.forEach(function(timer) { realClearTimeout(timer.handle); schedule(timer); });" +
+        "      return timers.size;" +
+        "    }," +
+        "    pending: function() { return timers.size; }" +
+        "  };" +
+        "})();";
+
+    private static final String ADVANCE_SCRIPT =
+        "return window.__virtualClock ? window.__virtualClock.advance(arguments[0]) : null;";
+
+    private VirtualClock() {
+    }
+
+    // Registers the clock for every document this browser tab loads from now on
+    public static void install(HasCdp cdp) {
+        if (ENABLED) {
+            cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", CLOCK_SCRIPT));
+        }
+    }
+
+    // Moves the page's clock forward and runs whatever became due. Returns
+    // false when the page has no virtual clock; callers then simply wait in
+    // real time as before.
+    public static boolean advance(WebDriver driver, long millis) {
+        return ((JavascriptExecutor) driver).executeScript(ADVANCE_SCRIPT, millis) != null;
+    }
+}
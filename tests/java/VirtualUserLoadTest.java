@@ -0,0 +1,39 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.*;
+
+// The load run opens its own sessions and server (see LoadDriver), so it
+// lives apart from BakeryE2ETest, whose @BeforeMethod would otherwise start
+// and reset a pool browser the run never uses. Run with mvn test -Pperf.
+public class VirtualUserLoadTest {
+
+    // The users' sessions live on the shared browser, which outlasts the run
+    @AfterSuite(alwaysRun = true)
+    public void tearDown() {
+        DriverPool.shutdown();
+    }
+
+    // -Dload.users virtual users each run the complete journey in their own
+    // browser context against one shared local server, through ramp-up, steady-state
+    // and soak phases (-Dload.rampUpSec, -Dload.steadySec, -Dload.soakSec);
+    // per-step throughput and latency histograms go to load-report.csv and
+    // load-histograms.hgrm
+    @Test(groups = "perf")
+    public void testVirtualUserLoad() {
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0"));
+
+        LoadDriver load = LoadDriver.fromSystemProperties();
+        load.run();
+        load.writeReport(StepTimings.reportDir());
+        for (String line : load.summary()) {
+            Reporter.log(line, true);
+        }
+        for (String error : load.errorSamples()) {
+            Reporter.log("load error: " + error, true);
+        }
+
+        Assert.assertTrue(load.completedJourneys() > 0, "No virtual user completed a journey");
+        Assert.assertTrue(load.errorRate() <= maxErrorRate,
+            "journey error rate " + load.errorRate() + " over " + maxErrorRate + ": " + load.errorSamples());
+    }
+}